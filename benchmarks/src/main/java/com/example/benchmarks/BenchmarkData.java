@@ -0,0 +1,69 @@
+package com.example.benchmarks;
+
+import com.example.common.enums.ExecutionState;
+import com.example.common.enums.StepState;
+import com.example.common.messaging.enums.CommandType;
+import com.example.common.messaging.enums.EventType;
+import com.example.common.messaging.model.BaseCommand;
+import com.example.common.messaging.model.BaseEvent;
+import com.example.orchestrator.converter.LazyJson;
+import com.example.orchestrator.entity.SagaInstanceEntity;
+import com.example.orchestrator.entity.SagaStepInstanceEntity;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.UUID;
+
+//Messages and entities shaped like the ones of the OrderStockSaga
+public abstract class BenchmarkData {
+    public static final String SAGA_ID = UUID.randomUUID().toString();
+    public static final String SAGA_INSTANCE_ID = UUID.randomUUID().toString();
+    public static final String AGGREGATE_ID = UUID.randomUUID().toString();
+
+    public static JsonNode payload(ObjectMapper objectMapper) {
+        return objectMapper.createObjectNode()
+                .put("stockId", UUID.randomUUID().toString())
+                .put("quantity", 3);
+    }
+
+    public static BaseEvent event(ObjectMapper objectMapper) {
+        return new BaseEvent(AGGREGATE_ID, EventType.STOCK_RESERVED, payload(objectMapper), SAGA_ID, SAGA_INSTANCE_ID);
+    }
+
+    public static BaseCommand command(ObjectMapper objectMapper) {
+        return new BaseCommand(AGGREGATE_ID, CommandType.PROCESS_PAYMENT, payload(objectMapper), SAGA_ID,
+                SAGA_INSTANCE_ID);
+    }
+
+    public static SagaInstanceEntity instance(ObjectMapper objectMapper) {
+        SagaInstanceEntity instance = new SagaInstanceEntity();
+        instance.setId(SAGA_INSTANCE_ID);
+        instance.setSagaId(SAGA_ID);
+        instance.setAggregateId(AGGREGATE_ID);
+        instance.setTriggerEventId(UUID.randomUUID().toString());
+        instance.setCurrentStep(3);
+        instance.setStatus(ExecutionState.RUNNING);
+        instance.setContextData(LazyJson.of(payload(objectMapper)));
+
+        instance.getSteps().add(step(instance, 1, "Reserve Stock", CommandType.RESERVE_STOCK, EventType.STOCK_RESERVED));
+        instance.getSteps().add(step(instance, 2, "Process Payment", CommandType.PROCESS_PAYMENT,
+                EventType.PAYMENT_SUCCEEDED));
+        instance.getSteps().add(step(instance, 3, "Complete Order", CommandType.COMPLETE_ORDER,
+                EventType.ORDER_COMPLETED));
+        return instance;
+    }
+
+    private static SagaStepInstanceEntity step(SagaInstanceEntity instance, int order, String name,
+                                               CommandType commandType, EventType eventType) {
+        SagaStepInstanceEntity step = new SagaStepInstanceEntity();
+        step.setId(UUID.randomUUID().toString());
+        step.setInstance(instance);
+        step.setStepOrder(order);
+        step.setName(name);
+        step.setCommandType(commandType);
+        step.setEventReceived(eventType);
+        step.setStatus(StepState.COMPLETED);
+        step.setRetryCount((short) 1);
+        return step;
+    }
+}
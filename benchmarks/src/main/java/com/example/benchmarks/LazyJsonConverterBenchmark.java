@@ -0,0 +1,50 @@
+package com.example.benchmarks;
+
+import com.example.orchestrator.converter.LazyJson;
+import com.example.orchestrator.converter.LazyJsonConverter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+//Column conversion of SagaInstanceEntity#contextData and the starter event payload
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LazyJsonConverterBenchmark {
+    private LazyJsonConverter converter;
+    private JsonNode payload;
+    private byte[] column;
+
+    @Setup
+    public void setup() {
+        converter = new LazyJsonConverter();
+        payload = BenchmarkData.payload(new ObjectMapper());
+        column = converter.convertToDatabaseColumn(LazyJson.of(payload));
+    }
+
+    @Benchmark
+    public byte[] toColumn() {
+        return converter.convertToDatabaseColumn(LazyJson.of(payload));
+    }
+
+    //Entity load on paths that never read the payload
+    @Benchmark
+    public LazyJson toAttribute() {
+        return converter.convertToEntityAttribute(column);
+    }
+
+    @Benchmark
+    public JsonNode toAttributeAndRead() {
+        return converter.convertToEntityAttribute(column).get();
+    }
+
+    @Benchmark
+    public JsonNode roundTrip() {
+        return converter.convertToEntityAttribute(converter.convertToDatabaseColumn(LazyJson.of(payload))).get();
+    }
+}
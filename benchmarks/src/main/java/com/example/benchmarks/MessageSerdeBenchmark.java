@@ -0,0 +1,82 @@
+package com.example.benchmarks;
+
+import com.example.common.messaging.model.BaseCommand;
+import com.example.common.messaging.model.BaseEvent;
+import com.example.common.messaging.serde.SagaMessageDeserializer;
+import com.example.common.messaging.serde.SagaMessageSerializer;
+import com.example.common.messaging.serde.SagaSerdeConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+//Kafka value serde of the services, BaseEvent/BaseCommand through SagaMessageSerializer/SagaMessageDeserializer
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageSerdeBenchmark {
+    private static final String TOPIC = "benchmark";
+
+    @Param({"json", "smile"})
+    private String format;
+
+    private SagaMessageSerializer<BaseEvent> eventSerializer;
+    private SagaMessageDeserializer<BaseEvent> eventDeserializer;
+    private SagaMessageSerializer<BaseCommand> commandSerializer;
+    private SagaMessageDeserializer<BaseCommand> commandDeserializer;
+
+    private BaseEvent event;
+    private BaseCommand command;
+    private byte[] eventBytes;
+    private byte[] commandBytes;
+
+    @Setup
+    public void setup() {
+        Map<String, Object> configs = Map.of(SagaSerdeConfig.VALUE_FORMAT, format);
+        eventSerializer = new SagaMessageSerializer<>();
+        eventSerializer.configure(configs, false);
+        commandSerializer = new SagaMessageSerializer<>();
+        commandSerializer.configure(configs, false);
+        eventDeserializer = new SagaMessageDeserializer<>(BaseEvent.class);
+        commandDeserializer = new SagaMessageDeserializer<>(BaseCommand.class);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        event = BenchmarkData.event(objectMapper);
+        command = BenchmarkData.command(objectMapper);
+        eventBytes = eventSerializer.serialize(TOPIC, event);
+        commandBytes = commandSerializer.serialize(TOPIC, command);
+        System.out.printf("%n%s: event %d bytes, command %d bytes%n", format, eventBytes.length, commandBytes.length);
+    }
+
+    @TearDown
+    public void tearDown() {
+        eventSerializer.close();
+        eventDeserializer.close();
+        commandSerializer.close();
+        commandDeserializer.close();
+    }
+
+    @Benchmark
+    public byte[] serializeEvent() {
+        return eventSerializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public BaseEvent deserializeEvent() {
+        return eventDeserializer.deserialize(TOPIC, eventBytes);
+    }
+
+    @Benchmark
+    public byte[] serializeCommand() {
+        return commandSerializer.serialize(TOPIC, command);
+    }
+
+    @Benchmark
+    public BaseCommand deserializeCommand() {
+        return commandDeserializer.deserialize(TOPIC, commandBytes);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.benchmarks;
+
+import com.example.common.messaging.enums.EventType;
+import com.example.common.messaging.model.BaseEvent;
+import com.example.orchestrator.OrchestratorApplication;
+import com.example.orchestrator.dao.SagaInstanceDao;
+import com.example.orchestrator.dto.SagaDefinition;
+import com.example.orchestrator.entity.SagaInstanceEntity;
+import com.example.orchestrator.service.SagaDefinitionRegistry;
+import com.example.orchestrator.service.SagaInstanceService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saga transitions through the real {@link SagaInstanceService} on an in-memory H2 (profile {@code benchmark}).
+ * Every invocation loads the instance, applies the event, flushes and rolls back, so the state never drifts
+ * and nothing reaches the outbox relay. Compensation is driven through {@code onTimeoutOrFailure},
+ * the public entry of {@code handleSagaFailureAndPrepareCompensationCommands}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SagaInstanceServiceBenchmark {
+    private ConfigurableApplicationContext context;
+    private SagaInstanceService service;
+    private SagaInstanceDao dao;
+    private TransactionTemplate transactionTemplate;
+    private ObjectMapper objectMapper;
+    private SagaDefinition saga;
+
+    //Waiting for STOCK_RESERVED
+    private SagaInstanceEntity firstStepInstance;
+    //Waiting for PAYMENT_SUCCEEDED, compensates the reserved stock on failure
+    private SagaInstanceEntity secondStepInstance;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(OrchestratorApplication.class)
+                .profiles("benchmark")
+                .run();
+        context.getBean(KafkaListenerEndpointRegistry.class).stop();
+
+        service = context.getBean(SagaInstanceService.class);
+        dao = context.getBean(SagaInstanceDao.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        objectMapper = context.getBean(ObjectMapper.class);
+        saga = context.getBean(SagaDefinitionRegistry.class).getByTrigger(EventType.ORDER_CREATED);
+
+        firstStepInstance = createInstance(1);
+        secondStepInstance = createInstance(2);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void stepReply() {
+        inRolledBackTransaction(() -> {
+            SagaInstanceEntity instance = dao.findByIdWithSteps(firstStepInstance.getId()).orElseThrow();
+            service.advice(event(instance, EventType.STOCK_RESERVED), false, saga, instance);
+        });
+    }
+
+    @Benchmark
+    public void compensation() {
+        inRolledBackTransaction(() -> service.onTimeoutOrFailure(event(secondStepInstance, saga.triggerEvent())));
+    }
+
+    private BaseEvent event(SagaInstanceEntity instance, EventType eventType) {
+        return new BaseEvent(instance.getAggregateId(), eventType, instance.getContextData().get(), saga.id(),
+                instance.getId());
+    }
+
+    private SagaInstanceEntity createInstance(int currentStep) {
+        BaseEvent start = new BaseEvent(UUID.randomUUID().toString(), saga.triggerEvent(),
+                BenchmarkData.payload(objectMapper));
+        SagaInstanceEntity instance = new SagaInstanceEntity(saga.saga(), start);
+        instance.setCurrentStep(currentStep);
+        return transactionTemplate.execute(status -> dao.save(instance));
+    }
+
+    private void inRolledBackTransaction(Runnable action) {
+        transactionTemplate.executeWithoutResult(status -> {
+            action.run();
+            dao.flush();
+            status.setRollbackOnly();
+        });
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.benchmarks;
+
+import com.example.common.messaging.model.SagaStatusMessage;
+import com.example.orchestrator.dto.mapper.SagaStatusMessageMapper;
+import com.example.orchestrator.entity.SagaInstanceEntity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+//Status built for every saga transition, three step instances like the OrderStockSaga
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SagaStatusMessageMapperBenchmark {
+    private SagaInstanceEntity instance;
+
+    @Setup
+    public void setup() {
+        instance = BenchmarkData.instance(new ObjectMapper());
+    }
+
+    @Benchmark
+    public SagaStatusMessage map() {
+        return SagaStatusMessageMapper.map(instance);
+    }
+}
@@ -1,26 +1,29 @@
 package com.example.common.messaging.model;
 
 import com.example.common.messaging.enums.CommandType;
+import com.example.common.utils.UuidV7;
 import com.fasterxml.jackson.databind.JsonNode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 @Getter
 @NoArgsConstructor
 public class BaseCommand {
-    private final String commandId = UUID.randomUUID().toString();
+    //Id and occurredAt are set by the constructors below, the no-args one is left to Jackson
+    private String commandId;
     private String sagaId;
     private String sagaInstanceId;
     private String aggregateId;
-    private final LocalDateTime occurredAt = LocalDateTime.now();
+    private LocalDateTime occurredAt;
     private CommandType commandType;
     private JsonNode payload;
 
     public BaseCommand(String aggregateId, CommandType commandType, JsonNode payload, String sagaId,
                        String sagaInstanceId) {
+        this.commandId = UuidV7.nextString();
+        this.occurredAt = LocalDateTime.now();
         this.aggregateId = aggregateId;
         this.commandType = commandType;
         this.payload = payload;
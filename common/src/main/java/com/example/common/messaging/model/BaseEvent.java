@@ -1,21 +1,22 @@
 package com.example.common.messaging.model;
 
 import com.example.common.messaging.enums.EventType;
+import com.example.common.utils.UuidV7;
 import com.fasterxml.jackson.databind.JsonNode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 @Getter
 @NoArgsConstructor
 public class BaseEvent {
-    private final String eventId = UUID.randomUUID().toString();
+    //Id and occurredAt are set by the constructors below, the no-args one is left to Jackson
+    private String eventId;
     private String sagaId;//SagaEntity#id
     private String sagaInstanceId;//SagaInstanceEntity#id
     private String aggregateId;
-    private final LocalDateTime occurredAt = LocalDateTime.now();
+    private LocalDateTime occurredAt;
     private EventType eventType;
     private JsonNode payload;
 
@@ -23,6 +24,8 @@ public class BaseEvent {
     private boolean failureEvent;
 
     public BaseEvent(String aggregateId, EventType eventType, JsonNode payload) {
+        this.eventId = UuidV7.nextString();
+        this.occurredAt = LocalDateTime.now();
         this.aggregateId = aggregateId;
         this.eventType = eventType;
         this.payload = payload;
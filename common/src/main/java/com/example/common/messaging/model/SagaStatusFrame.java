@@ -0,0 +1,39 @@
+package com.example.common.messaging.model;
+
+/**
+ * Text frame of the statuses published on the {@link com.example.common.statics.RedisChannelNames#ORDER_STATUS} channels:
+ * one {@code aggregateId TAB version TAB statusJson} line per saga, so subscribers route every status by its
+ * aggregateId and forward the JSON as is, without parsing it. The version is the one of the status snapshot
+ * ({@link com.example.common.statics.RedisChannelNames#orderStatusSnapshot(String)}).
+ */
+public abstract class SagaStatusFrame {
+    private static final char SEPARATOR = '\t';
+    private static final char END_OF_LINE = '\n';
+
+    @FunctionalInterface
+    public interface LineConsumer {
+        void accept(String aggregateId, long version, String statusJson);
+    }
+
+    public static StringBuilder append(StringBuilder frame, String aggregateId, long version, String statusJson) {
+        return frame.append(aggregateId).append(SEPARATOR).append(version).append(SEPARATOR)
+                .append(statusJson).append(END_OF_LINE);
+    }
+
+    public static void forEach(String frame, LineConsumer consumer) {
+        int start = 0;
+        while (start < frame.length()) {
+            int end = frame.indexOf(END_OF_LINE, start);
+            if (end < 0) {
+                end = frame.length();
+            }
+            int first = frame.indexOf(SEPARATOR, start);
+            int second = first > start ? frame.indexOf(SEPARATOR, first + 1) : -1;
+            if (second > first && second < end) {
+                consumer.accept(frame.substring(start, first), Long.parseLong(frame, first + 1, second, 10),
+                        frame.substring(second + 1, end));
+            }
+            start = end + 1;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.common.messaging.serde;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads {@code BaseEvent}/{@code BaseCommand} values written as JSON (including by Spring's JsonSerializer)
+ * or Smile; the format is detected from the payload, not configured.
+ */
+public class SagaMessageDeserializer<T> implements Deserializer<T> {
+    private Class<?> type;
+    private final Map<String, Class<?>> topicTypes = new HashMap<>();
+
+    public SagaMessageDeserializer() {
+    }
+
+    public SagaMessageDeserializer(Class<T> type) {
+        this.type = type;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        if (type == null) {
+            type = toClass(configs.get(SagaSerdeConfig.VALUE_TYPE));
+        }
+        if (configs.get(SagaSerdeConfig.TOPIC_VALUE_TYPES) instanceof Map<?, ?> types) {
+            types.forEach((topic, topicType) -> topicTypes.put(topic.toString(), toClass(topicType)));
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return (T) WireFormat.detect(data).mapper().readValue(data, topicTypes.getOrDefault(topic, type));
+        } catch (Exception e) {
+            throw new SerializationException("Can't deserialize data from topic [" + topic + "]", e);
+        }
+    }
+
+    private static Class<?> toClass(Object value) {
+        if (value instanceof Class<?> clazz) {
+            return clazz;
+        }
+        try {
+            return Class.forName(String.valueOf(value), true, Thread.currentThread().getContextClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Unknown value type " + value, e);
+        }
+    }
+}
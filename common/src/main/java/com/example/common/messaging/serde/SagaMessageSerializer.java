@@ -0,0 +1,55 @@
+package com.example.common.messaging.serde;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.*;
+
+/**
+ * Writes {@code BaseEvent}/{@code BaseCommand} values in the {@link WireFormat} configured for their topic.
+ * Consumers with {@link SagaMessageDeserializer} read both formats, so a topic can be switched without
+ * draining it first.
+ */
+public class SagaMessageSerializer<T> implements Serializer<T> {
+    private WireFormat defaultFormat = WireFormat.JSON;
+    private Set<String> binaryTopics = Set.of();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object format = configs.get(SagaSerdeConfig.VALUE_FORMAT);
+        defaultFormat = WireFormat.of(format != null ? format.toString() : null);
+        binaryTopics = toSet(configs.get(SagaSerdeConfig.BINARY_TOPICS));
+    }
+
+    public WireFormat formatOf(String topic) {
+        return binaryTopics.contains(topic) ? WireFormat.SMILE : defaultFormat;
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return formatOf(topic).mapper().writeValueAsBytes(data);
+        } catch (Exception e) {
+            throw new SerializationException("Can't serialize data [" + data + "] for topic [" + topic + "]", e);
+        }
+    }
+
+    private static Set<String> toSet(Object value) {
+        if (value == null) {
+            return Set.of();
+        }
+        Collection<?> items = value instanceof Collection<?> collection ? collection
+                : value instanceof String[] array ? Arrays.asList(array)
+                : Arrays.asList(value.toString().split(","));
+        Set<String> topics = new HashSet<>();
+        for (Object item : items) {
+            if (item != null && !item.toString().isBlank()) {
+                topics.add(item.toString().trim());
+            }
+        }
+        return topics;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.common.messaging.serde;
+
+/**
+ * Kafka client properties of {@link SagaMessageSerializer} and {@link SagaMessageDeserializer}.
+ * Producers write {@link #VALUE_FORMAT} (json or smile), {@link #BINARY_TOPICS} are smile either way; consumers
+ * detect the format of every message, so the services need not agree on it.
+ */
+public abstract class SagaSerdeConfig {
+    //json or smile, format of the topics not listed below
+    public static final String VALUE_FORMAT = "saga.serde.format";
+    //Comma separated topics (or a collection) produced as smile whatever VALUE_FORMAT is
+    public static final String BINARY_TOPICS = "saga.serde.binary-topics";
+    //Class (or class name) the deserializer reads the values into
+    public static final String VALUE_TYPE = "saga.serde.value-type";
+    //Map of topic to class for the topics of a consumer whose values are not VALUE_TYPE
+    public static final String TOPIC_VALUE_TYPES = "saga.serde.topic-value-types";
+}
@@ -0,0 +1,56 @@
+package com.example.common.messaging.serde;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.cfg.MapperBuilder;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Value formats of the saga messages. Both map the same Java model by field name, so adding a field or
+ * dropping one is compatible in both directions (unknown fields are ignored, missing ones keep their default).
+ */
+public enum WireFormat {
+    //Readable, for debugging with console consumers. Dates as ISO strings, like Spring's JsonSerializer wrote them
+    JSON(JsonMapper.builder().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)),
+    //Binary JSON: field names are sent once per message and back-referenced, numbers and dates are binary
+    SMILE(SmileMapper.builder(new SmileFactory()));
+
+    //Every Smile document starts with ':)\n', a JSON document never does
+    private static final byte[] SMILE_HEADER = {':', ')', '\n'};
+
+    private final ObjectMapper mapper;
+
+    WireFormat(MapperBuilder<?, ?> builder) {
+        this.mapper = builder
+                .addModule(new JavaTimeModule())
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .build();
+    }
+
+    public ObjectMapper mapper() {
+        return mapper;
+    }
+
+    public static WireFormat of(String name) {
+        return name == null || name.isBlank() ? JSON : valueOf(name.trim().toUpperCase());
+    }
+
+    /**
+     * Format of an already serialized value, regardless of what the producer was configured with.
+     */
+    public static WireFormat detect(byte[] data) {
+        if (data.length >= SMILE_HEADER.length) {
+            for (int i = 0; i < SMILE_HEADER.length; i++) {
+                if (data[i] != SMILE_HEADER[i]) {
+                    return JSON;
+                }
+            }
+            return SMILE;
+        }
+        return JSON;
+    }
+}
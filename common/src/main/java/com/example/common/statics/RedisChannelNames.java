@@ -2,4 +2,27 @@ package com.example.common.statics;
 
 public abstract class RedisChannelNames {
     public static final String ORDER_STATUS = "order_status";
+    //Statuses are spread over ORDER_STATUS:<bucket> channels, nodes only subscribe to the buckets they watch
+    public static final int ORDER_STATUS_BUCKETS = 256;
+    public static final String ORDER_STATUS_PATTERN = ORDER_STATUS + ":*";
+    //Hash of the latest status of an aggregate (version, status), kept STATUS_SNAPSHOT_TTL_MS
+    public static final String ORDER_STATUS_SNAPSHOT = "order_status_snapshot:";
+    public static final String SNAPSHOT_VERSION = "version";
+    public static final String SNAPSHOT_STATUS = "status";
+
+    public static String orderStatus(String aggregateId) {
+        return orderStatus(orderStatusBucket(aggregateId));
+    }
+
+    public static String orderStatus(int bucket) {
+        return ORDER_STATUS + ":" + bucket;
+    }
+
+    public static int orderStatusBucket(String aggregateId) {
+        return Math.floorMod(aggregateId.hashCode(), ORDER_STATUS_BUCKETS);
+    }
+
+    public static String orderStatusSnapshot(String aggregateId) {
+        return ORDER_STATUS_SNAPSHOT + aggregateId;
+    }
 }
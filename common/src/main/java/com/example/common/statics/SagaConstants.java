@@ -9,9 +9,37 @@ public abstract class SagaConstants {
 
     public static final int TIMEOUT_POLL_INTERVAL_MS = 2_000;
     public static final int TIMEOUT_POLL_BATCH_SIZE = 500;
+    public static final int TIMEOUT_SHARD_LEASE_MS = 9_000;
+    public static final int TIMEOUT_CLAIM_LEASE_MS = 30_000;
+
+    public static final int OUTBOX_POLL_INTERVAL_MS = 1_000;
+    public static final int OUTBOX_BATCH_SIZE = 100;
+    //A claimed outbox row is sent again after this; covers the producer's max block and delivery timeouts
+    public static final int OUTBOX_SEND_LEASE_MS = 2 * DELIVERY_TIMEOUT_MS;
+
+    public static final int STATUS_FLUSH_INTERVAL_MS = 50;
+    public static final int STATUS_FRAME_SIZE = 100;
+    public static final long STATUS_SNAPSHOT_TTL_MS = 60 * 60 * 1_000L;
+    public static final long STATUS_STREAM_TIMEOUT_MS = 10 * 60 * 1_000L;
+    public static final long STATUS_LONG_POLL_TIMEOUT_MS = 25_000L;
+
+    public static final int STEP_LATENCY_WINDOW = 1_024;
+
+    public static final int SAGA_INSTANCE_CACHE_SIZE = 10_000;
+    public static final long SAGA_INSTANCE_CACHE_IDLE_MS = 10 * 60 * 1_000L;
+
+    public static final int PROCESSED_EVENT_CACHE_SIZE = 10_000;
+    public static final long PROCESSED_EVENT_TTL_MS = 60 * 60 * 1_000L;
+    public static final long PROCESSED_EVENT_RETENTION_MS = 7 * 24 * 60 * 60 * 1_000L;
+    public static final long PROCESSED_EVENT_CLEANUP_MS = 60 * 60 * 1_000L;
 
     public static final int TOTAL_WORKFLOW_TIMEOUT_MS = 60_000;
     public static final int RELEASE_RESOURCE_TIMEOUT_MS =
             TOTAL_WORKFLOW_TIMEOUT_MS + (RETRY_INTERVAL * RETRY_THRESHOLD) + (TOTAL_WORKFLOW_TIMEOUT_MS / 2);
     public static final int RELEASE_RESOURCE_SCHEDULER_MS = (TOTAL_WORKFLOW_TIMEOUT_MS / 3);
+    public static final int RELEASE_RESOURCE_BATCH_SIZE = 100;
+    public static final int RELEASE_RESOURCE_MAX_BATCHES = 10;
+
+    public static final int STOCK_NEAR_CACHE_SIZE = 10_000;
+    public static final long STOCK_NEAR_CACHE_TTL_MS = 2_000L;
 }
@@ -0,0 +1,52 @@
+package com.example.common.utils;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Time-ordered UUIDs (RFC 9562 version 7): 48 bits of epoch millis, a 12 bits sequence and 62 random bits.
+ * Ids of a thread are strictly ascending (the sequence borrows the next millisecond when it overflows or the
+ * clock goes back); across threads they are ordered by millisecond. As their canonical strings sort like the
+ * numbers, they keep the inserts of the String primary keys at the end of the index.
+ * State is per thread and the random bits come from {@link ThreadLocalRandom}, so there is no lock,
+ * CAS or SecureRandom on the way.
+ */
+public final class UuidV7 {
+    private static final int MAX_SEQUENCE = 0xFFF;
+
+    private static final class State {
+        private long millis;
+        private int sequence;
+    }
+
+    private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+
+    private UuidV7() {
+    }
+
+    public static UUID next() {
+        State state = STATE.get();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long now = System.currentTimeMillis();
+        if (now > state.millis) {
+            state.millis = now;
+            //Random start in the lower half, leaves room for the ids of the same millisecond
+            state.sequence = random.nextInt(MAX_SEQUENCE / 2);
+        } else if (++state.sequence > MAX_SEQUENCE) {
+            state.millis++;
+            state.sequence = 0;
+        }
+        long msb = (state.millis << 16) | 0x7000L | state.sequence;
+        long lsb = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
+    public static String nextString() {
+        return next().toString();
+    }
+
+    //Creation time of a version 7 id in epoch millis
+    public static long millisOf(UUID uuid) {
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+}
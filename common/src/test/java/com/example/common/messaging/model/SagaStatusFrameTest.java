@@ -0,0 +1,59 @@
+package com.example.common.messaging.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SagaStatusFrameTest {
+
+    private record Line(String aggregateId, long version, String statusJson) {
+    }
+
+    @Test
+    void readsBackTheAppendedLines() {
+        StringBuilder frame = new StringBuilder();
+        SagaStatusFrame.append(frame, "order-1", 1, "{\"status\":\"RUNNING\"}");
+        SagaStatusFrame.append(frame, "order-2", Long.MAX_VALUE, "{\"status\":\"COMPLETED\",\"note\":\"a\\tb\"}");
+
+        assertThat(parse(frame.toString())).containsExactly(
+                new Line("order-1", 1, "{\"status\":\"RUNNING\"}"),
+                new Line("order-2", Long.MAX_VALUE, "{\"status\":\"COMPLETED\",\"note\":\"a\\tb\"}"));
+    }
+
+    @Test
+    void lastLineDoesNotNeedItsEndOfLine() {
+        assertThat(parse("order-1\t2\t{}\norder-2\t3\t[]"))
+                .containsExactly(new Line("order-1", 2, "{}"), new Line("order-2", 3, "[]"));
+    }
+
+    @Test
+    void statusJsonKeepsEverythingAfterTheSecondSeparator() {
+        assertThat(parse("order-1\t2\t{\t}\n")).containsExactly(new Line("order-1", 2, "{\t}"));
+    }
+
+    @Test
+    void skipsMalformedLinesWithoutLosingTheNextOnes() {
+        String frame = "no separator\n"
+                + "one\tseparator\n"
+                + "\n"
+                + "\t4\t{}\n"
+                + "order-1\t5\t{}\n";
+
+        assertThat(parse(frame)).containsExactly(new Line("order-1", 5, "{}"));
+    }
+
+    @Test
+    void emptyFrameHasNoLine() {
+        assertThat(parse("")).isEmpty();
+    }
+
+    private static List<Line> parse(String frame) {
+        List<Line> lines = new ArrayList<>();
+        SagaStatusFrame.forEach(frame, (aggregateId, version, statusJson) ->
+                lines.add(new Line(aggregateId, version, statusJson)));
+        return lines;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.common.messaging.serde;
+
+import com.example.common.messaging.enums.CommandType;
+import com.example.common.messaging.enums.EventType;
+import com.example.common.messaging.model.BaseCommand;
+import com.example.common.messaging.model.BaseEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SagaMessageSerdeTest {
+    private static final String JSON_TOPIC = "order-events";
+    private static final String SMILE_TOPIC = "payment-events";
+
+    private final SagaMessageSerializer<Object> serializer = new SagaMessageSerializer<>();
+    private final SagaMessageDeserializer<BaseEvent> deserializer = new SagaMessageDeserializer<>(BaseEvent.class);
+    private final BaseEvent event = new BaseEvent("order-1", EventType.ORDER_CREATED,
+            JsonNodeFactory.instance.objectNode().put("amount", 42), "saga-1", "instance-1");
+
+    SagaMessageSerdeTest() {
+        serializer.configure(Map.of(SagaSerdeConfig.BINARY_TOPICS, SMILE_TOPIC), false);
+        deserializer.configure(Map.of(), false);
+    }
+
+    @Test
+    void serializesTheBinaryTopicsAsSmile() {
+        byte[] json = serializer.serialize(JSON_TOPIC, event);
+        byte[] smile = serializer.serialize(SMILE_TOPIC, event);
+
+        assertThat(WireFormat.detect(json)).isEqualTo(WireFormat.JSON);
+        assertThat(new String(json, StandardCharsets.UTF_8)).startsWith("{");
+        assertThat(WireFormat.detect(smile)).isEqualTo(WireFormat.SMILE);
+        assertThat(smile).startsWith(':', ')', '\n');
+    }
+
+    @Test
+    void writesTheDatesOfJsonAsIsoStrings() throws Exception {
+        JsonNode json = new ObjectMapper().readTree(serializer.serialize(JSON_TOPIC, event));
+
+        assertThat(json.get("occurredAt").isTextual()).isTrue();
+        assertThat(LocalDateTime.parse(json.get("occurredAt").asText())).isEqualTo(event.getOccurredAt());
+    }
+
+    @Test
+    void readsBothFormatsWhateverTheTopic() {
+        BaseEvent fromJson = deserializer.deserialize(SMILE_TOPIC, serializer.serialize(JSON_TOPIC, event));
+        BaseEvent fromSmile = deserializer.deserialize(JSON_TOPIC, serializer.serialize(SMILE_TOPIC, event));
+
+        for (BaseEvent read : new BaseEvent[]{fromJson, fromSmile}) {
+            assertThat(read.getEventId()).isEqualTo(event.getEventId());
+            assertThat(read.getOccurredAt()).isEqualTo(event.getOccurredAt());
+            assertThat(read.getEventType()).isEqualTo(EventType.ORDER_CREATED);
+            assertThat(read.getPayload()).isEqualTo(event.getPayload());
+            assertThat(read.getSagaInstanceId()).isEqualTo("instance-1");
+        }
+    }
+
+    @Test
+    void readsJsonWrittenByOtherProducersIgnoringUnknownFields() {
+        byte[] json = """
+                {"eventId":"e-1","aggregateId":"order-1","eventType":"ORDER_CREATED","addedLater":true}
+                """.getBytes(StandardCharsets.UTF_8);
+
+        BaseEvent read = deserializer.deserialize(JSON_TOPIC, json);
+
+        assertThat(read.getEventId()).isEqualTo("e-1");
+        assertThat(read.getAggregateId()).isEqualTo("order-1");
+    }
+
+    @Test
+    void defaultFormatAppliesToTheUnlistedTopics() {
+        SagaMessageSerializer<Object> smileByDefault = new SagaMessageSerializer<>();
+        smileByDefault.configure(Map.of(SagaSerdeConfig.VALUE_FORMAT, "smile"), false);
+
+        assertThat(smileByDefault.formatOf(JSON_TOPIC)).isEqualTo(WireFormat.SMILE);
+        assertThat(serializer.formatOf(JSON_TOPIC)).isEqualTo(WireFormat.JSON);
+    }
+
+    @Test
+    void readsTheTypeConfiguredForTheTopic() {
+        SagaMessageDeserializer<Object> perTopic = new SagaMessageDeserializer<>();
+        perTopic.configure(Map.of(SagaSerdeConfig.VALUE_TYPE, BaseEvent.class.getName(),
+                SagaSerdeConfig.TOPIC_VALUE_TYPES, Map.of("payment-commands", BaseCommand.class)), false);
+        BaseCommand command = new BaseCommand("order-1", CommandType.PROCESS_PAYMENT, null, "saga-1", "instance-1");
+
+        assertThat(perTopic.deserialize("payment-commands", serializer.serialize(SMILE_TOPIC, command)))
+                .isInstanceOf(BaseCommand.class);
+        assertThat(perTopic.deserialize(JSON_TOPIC, serializer.serialize(JSON_TOPIC, event)))
+                .isInstanceOf(BaseEvent.class);
+    }
+
+    @Test
+    void shortOrInvalidDataIsASerializationError() {
+        assertThat(WireFormat.detect(new byte[]{':', ')'})).isEqualTo(WireFormat.JSON);
+        assertThatThrownBy(() -> deserializer.deserialize(JSON_TOPIC, new byte[]{':', ')'}))
+                .isInstanceOf(SerializationException.class);
+        assertThat(deserializer.deserialize(JSON_TOPIC, null)).isNull();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidV7Test {
+
+    @Test
+    void isAVersion7IdOfTheCurrentMillisecond() {
+        long before = System.currentTimeMillis();
+        UUID id = UuidV7.next();
+        long after = System.currentTimeMillis();
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        assertThat(UuidV7.millisOf(id)).isBetween(before, after + 1);
+    }
+
+    @Test
+    void idsOfAThreadAreStrictlyAscendingAsStrings() {
+        //More than the 4096 ids a millisecond holds, so the sequence overflows into the next one
+        String previous = UuidV7.nextString();
+        for (int i = 0; i < 100_000; i++) {
+            String next = UuidV7.nextString();
+            assertThat(next).isGreaterThan(previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    void idsOfALaterMillisecondSortAfterWhateverTheThread() throws Exception {
+        UUID first = UuidV7.next();
+        Thread.sleep(2);
+
+        UUID other = CompletableFuture.supplyAsync(UuidV7::next).get();
+
+        assertThat(UuidV7.millisOf(other)).isGreaterThan(UuidV7.millisOf(first));
+        assertThat(other.toString()).isGreaterThan(first.toString());
+    }
+}
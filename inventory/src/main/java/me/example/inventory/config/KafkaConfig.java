@@ -2,6 +2,9 @@ package me.example.inventory.config;
 
 import com.example.common.messaging.model.BaseCommand;
 import com.example.common.messaging.model.BaseEvent;
+import com.example.common.messaging.serde.SagaMessageDeserializer;
+import com.example.common.messaging.serde.SagaMessageSerializer;
+import com.example.common.messaging.serde.SagaSerdeConfig;
 import com.example.common.statics.KafkaNames;
 import org.apache.kafka.clients.admin.AdminClientConfig;
 import org.apache.kafka.clients.admin.NewTopic;
@@ -15,20 +18,31 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.*;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
 import java.util.Map;
 
 @Configuration
 public class KafkaConfig {
-    private static final int PARTITIONS = 1;
     private static final short REPLICATION = 1;
 
     @Value(value = "${spring.kafka.bootstrap-servers}")
     private String bootstrapAddress;
 
+    //The orchestrator expects inventory-events to have as many partitions as the other event topics
+    @Value(value = "${saga.kafka.partitions:1}")
+    private int partitions;
+
+    @Value(value = "${saga.kafka.listener-concurrency:1}")
+    private int concurrency;
+
+    //See SagaSerdeConfig
+    @Value(value = "${saga.kafka.serde.format:json}")
+    private String serdeFormat;
+
+    @Value(value = "${saga.kafka.serde.binary-topics:}")
+    private String binaryTopics;
+
     // ====================
     // KafkaAdmin (Topic Creation)
     // ====================
@@ -45,7 +59,7 @@ public class KafkaConfig {
     @Bean
     public NewTopic inventoryCommandsTopic() {
         return TopicBuilder.name(KafkaNames.INVENTORY_COMMANDS)
-                .partitions(PARTITIONS)
+                .partitions(partitions)
                 .replicas(REPLICATION)
                 .build();
     }
@@ -56,7 +70,7 @@ public class KafkaConfig {
     @Bean
     public NewTopic inventoryEventsTopic() {
         return TopicBuilder.name(KafkaNames.INVENTORY_EVENTS)
-                .partitions(PARTITIONS)
+                .partitions(partitions)
                 .replicas(REPLICATION)
                 .build();
     }
@@ -64,7 +78,7 @@ public class KafkaConfig {
     @Bean
     public NewTopic sagaEventsTopic() {
         return TopicBuilder.name(KafkaNames.SAGA_EVENTS)
-                .partitions(PARTITIONS)
+                .partitions(partitions)
                 .replicas(REPLICATION)
                 .build();
     }
@@ -77,7 +91,9 @@ public class KafkaConfig {
         Map<String, Object> props = new HashMap<>();
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapAddress);
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, SagaMessageSerializer.class);
+        props.put(SagaSerdeConfig.VALUE_FORMAT, serdeFormat);
+        props.put(SagaSerdeConfig.BINARY_TOPICS, binaryTopics);
         return new DefaultKafkaProducerFactory<>(props);
     }
 
@@ -91,8 +107,10 @@ public class KafkaConfig {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapAddress);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
-        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, BaseCommand.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, SagaMessageDeserializer.class);
+        props.put(SagaSerdeConfig.VALUE_TYPE, BaseCommand.class);
+        //InventoryListener#onEvent
+        props.put(SagaSerdeConfig.TOPIC_VALUE_TYPES, Map.of(KafkaNames.SAGA_EVENTS, BaseEvent.class));
         return new DefaultKafkaConsumerFactory<>(props);
     }
 
@@ -101,6 +119,7 @@ public class KafkaConfig {
         ConcurrentKafkaListenerContainerFactory<String, BaseCommand> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        factory.setConcurrency(concurrency);
         return factory;
     }
 }
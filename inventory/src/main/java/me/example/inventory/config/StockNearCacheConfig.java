@@ -0,0 +1,82 @@
+package me.example.inventory.config;
+
+import me.example.inventory.scheduling.StockNearCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+/**
+ * Invalidates {@link StockNearCache} on the keyspace notifications of the {@code stock:*} keys, i.e. the changes
+ * made by the reserve, release and expiry scripts and by increaseStockAmount on any node.
+ */
+@Configuration
+@ConditionalOnProperty(name = "saga.stock-cache.enabled", havingValue = "true")
+public class StockNearCacheConfig {
+    private static final Logger logger = LoggerFactory.getLogger(StockNearCacheConfig.class);
+    private static final String STOCK_KEYSPACE = "__keyspace@*__:stock:*";
+    private static final String STOCK_KEY_PREFIX = "__:stock:";
+    private static final String KEYSPACE_EVENTS = "notify-keyspace-events";
+    //Event classes included in the A flag
+    private static final String ALL_CLASSES = "g$lshzxetd";
+
+    @Bean
+    public RedisMessageListenerContainer stockKeyspaceListener(
+            RedisConnectionFactory connectionFactory, StockNearCache nearCache,
+            @Value("${saga.stock-cache.keyspace-events:Kg$}") String keyspaceEvents) {
+        if (StringUtils.hasText(keyspaceEvents)) {
+            enableKeyspaceEvents(connectionFactory, keyspaceEvents);
+        }
+
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> {
+            //Channel is __keyspace@<db>__:stock:<stockId>
+            String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+            int index = channel.indexOf(STOCK_KEY_PREFIX);
+            if (index >= 0) {
+                nearCache.invalidate(channel.substring(index + STOCK_KEY_PREFIX.length()));
+            }
+        }, new PatternTopic(STOCK_KEYSPACE));
+        //Notifications sent while unsubscribed are lost
+        container.setErrorHandler(e -> nearCache.invalidateAll());
+        return container;
+    }
+
+    //Adds the missing flags to the server setting, the notifications other clients rely on stay enabled
+    private static void enableKeyspaceEvents(RedisConnectionFactory connectionFactory, String keyspaceEvents) {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            Properties config = connection.serverCommands().getConfig(KEYSPACE_EVENTS);
+            String current = config != null ? config.getProperty(KEYSPACE_EVENTS, "") : "";
+            String merged = mergeKeyspaceEvents(current, keyspaceEvents);
+            if (!merged.equals(current)) {
+                connection.serverCommands().setConfig(KEYSPACE_EVENTS, merged);
+                logger.info("notify-keyspace-events changed from '{}' to '{}'", current, merged);
+            }
+        } catch (Exception e) {
+            //e.g. CONFIG is disabled on managed Redis, notify-keyspace-events must then be set on the server
+            logger.warn("Could not enable keyspace notifications: {}", e.getMessage());
+        }
+    }
+
+    static String mergeKeyspaceEvents(String current, String required) {
+        StringBuilder merged = new StringBuilder(current);
+        for (char flag : required.toCharArray()) {
+            boolean coveredByAll = current.indexOf('A') >= 0 && ALL_CLASSES.indexOf(flag) >= 0;
+            if (merged.indexOf(String.valueOf(flag)) < 0 && !coveredByAll) {
+                merged.append(flag);
+            }
+        }
+        return merged.toString();
+    }
+}
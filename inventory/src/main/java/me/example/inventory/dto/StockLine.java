@@ -0,0 +1,31 @@
+package me.example.inventory.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One line of an order, i.e. a quantity of one stock.
+ */
+public record StockLine(String stockId, int quantity) {
+
+    /**
+     * Lines of a saga payload, either an {@code items} array of {@code {stockId, quantity}} or a single
+     * {@code stockId}/{@code quantity} pair. Lines of the same stock are merged.
+     */
+    public static List<StockLine> fromPayload(JsonNode payload) {
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        JsonNode items = payload.get("items");
+        if (items != null && items.isArray()) {
+            items.forEach(item -> quantities.merge(item.get("stockId").asText(), item.path("quantity").asInt(), Integer::sum));
+        } else {
+            quantities.put(payload.get("stockId").asText(), payload.path("quantity").asInt());
+        }
+        List<StockLine> lines = new ArrayList<>(quantities.size());
+        quantities.forEach((stockId, quantity) -> lines.add(new StockLine(stockId, quantity)));
+        return lines;
+    }
+}
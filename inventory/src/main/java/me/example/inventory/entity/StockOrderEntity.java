@@ -8,11 +8,13 @@ import lombok.Setter;
 @Setter
 @Getter
 @Entity
-@Table(name = "stock_reservation")
+@Table(name = "stock_reservation",
+        uniqueConstraints = @UniqueConstraint(name = "uk_stock_reservation_aggregate_id", columnNames = "aggregate_id")
+)
 public class StockOrderEntity extends BaseEntity {
 
     //e.g. Order Id
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String aggregateId;
 
     @Column(nullable = false)
@@ -1,6 +1,8 @@
 package me.example.inventory.scheduling;
 
 import com.example.common.statics.SagaConstants;
+import jakarta.annotation.PostConstruct;
+import me.example.inventory.dto.StockLine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.ClassPathResource;
@@ -9,6 +11,8 @@ import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 @Component
@@ -18,13 +22,19 @@ public class RedisStockService {
     private static final String RESERVATIONS_KEY = "reservations:";
     private static final String RESERVATION_KEY = "reservation:";
     private static final String ACTIVE_RESERVATIONS_KEY = "active_reservations";
+    //Global due-time index, orderId scored by expireAt
+    private static final String RESERVATION_EXPIRY_KEY = "reservation_expiry";
     private final RedisTemplate<String, String> redisTemplate;
+    private final StockNearCache nearCache;
     private final DefaultRedisScript<String> reserveStockScript;
     private final DefaultRedisScript<String> releaseStockScript;
+    private final DefaultRedisScript<Long> completeReservationScript;
     private final DefaultRedisScript<List> cleanupAllExpiredScript;
+    private final DefaultRedisScript<Long> indexLegacyReservationsScript;
 
-    public RedisStockService(RedisTemplate<String, String> redisTemplate) {
+    public RedisStockService(RedisTemplate<String, String> redisTemplate, StockNearCache nearCache) {
         this.redisTemplate = redisTemplate;
+        this.nearCache = nearCache;
 
         this.reserveStockScript = new DefaultRedisScript<>();
         this.reserveStockScript.setLocation(new ClassPathResource("scripts/reserve-stock.lua"));
@@ -34,76 +44,138 @@ public class RedisStockService {
         this.releaseStockScript.setLocation(new ClassPathResource("scripts/release-stock.lua"));
         this.releaseStockScript.setResultType(String.class);
 
+        this.completeReservationScript = new DefaultRedisScript<>();
+        this.completeReservationScript.setLocation(new ClassPathResource("scripts/complete-reservation.lua"));
+        this.completeReservationScript.setResultType(Long.class);
+
         this.cleanupAllExpiredScript = new DefaultRedisScript<>();
         this.cleanupAllExpiredScript.setLocation(new ClassPathResource("scripts/expire-reservations.lua"));
         this.cleanupAllExpiredScript.setResultType(List.class);
+
+        this.indexLegacyReservationsScript = new DefaultRedisScript<>();
+        this.indexLegacyReservationsScript.setLocation(new ClassPathResource("scripts/index-legacy-reservations.lua"));
+        this.indexLegacyReservationsScript.setResultType(Long.class);
+    }
+
+    /**
+     * Indexes the reservations made before {@code reservation_expiry} existed, so they expire too. Their single
+     * line hash ({@code qty}, {@code productId}) is understood by the release and expiry scripts.
+     */
+    @PostConstruct
+    public void indexLegacyReservations() {
+        try {
+            Long added = redisTemplate.execute(indexLegacyReservationsScript,
+                    List.of(RESERVATIONS_KEY, ACTIVE_RESERVATIONS_KEY, RESERVATION_EXPIRY_KEY));
+            if (added != null && added > 0) {
+                logger.info("Indexed {} reservations for expiry", added);
+            }
+        } catch (Exception e) {
+            logger.error("Indexing the reservations for expiry failed: {}", e.getMessage());
+        }
     }
 
-    public boolean reserveStock(String aggregateId, String stockId, int quantity) {
+    /**
+     * Reserves all the lines in one script call, either every line is reserved or none.
+     */
+    public boolean reserveStock(String aggregateId, List<StockLine> lines) {
         int ttlSeconds = SagaConstants.RELEASE_RESOURCE_TIMEOUT_MS / 1000;
-        List<String> keys = List.of(
-                stockKey(stockId),
-                reservationsKey(stockId),
-                ACTIVE_RESERVATIONS_KEY,
-                reservationKey(aggregateId)
-        );
         long now = System.currentTimeMillis() / 1000;
-        String result = redisTemplate.execute(
-                reserveStockScript,
-                keys,
-                aggregateId,
-                String.valueOf(quantity), String.valueOf(now), String.valueOf(ttlSeconds), stockId
+        List<String> keys = new ArrayList<>(3 + 2 * lines.size());
+        keys.add(ACTIVE_RESERVATIONS_KEY);
+        keys.add(reservationKey(aggregateId));
+        keys.add(RESERVATION_EXPIRY_KEY);
+        List<String> args = new ArrayList<>(3 + 2 * lines.size());
+        args.add(aggregateId);
+        args.add(String.valueOf(now));
+        args.add(String.valueOf(ttlSeconds));
+        for (StockLine line : lines) {
+            keys.add(stockKey(line.stockId()));
+            keys.add(reservationsKey(line.stockId()));
+            args.add(line.stockId());
+            args.add(String.valueOf(line.quantity()));
+        }
 
-        );
+        String result = redisTemplate.execute(reserveStockScript, keys, args.toArray());
+        lines.forEach(line -> nearCache.invalidate(line.stockId()));
         logger.info("Result of reserving is {} ", result);
         return result != null && result.startsWith("RESERVED");
     }
 
-    public boolean releaseStock(String aggregateId, String stockId) {
-        List<String> keys = List.of(
-                stockKey(stockId),
-                reservationsKey(stockId),
-                ACTIVE_RESERVATIONS_KEY,
-                reservationKey(aggregateId)
-        );
-
-        String result = redisTemplate.execute(
-                releaseStockScript,
-                keys,
-                stockId, aggregateId
-        );
+    /**
+     * Releases the reserved quantity of every given stock in one script call.
+     */
+    public boolean releaseStock(String aggregateId, Collection<String> stockIds) {
+        List<String> keys = new ArrayList<>(3 + 2 * stockIds.size());
+        keys.add(ACTIVE_RESERVATIONS_KEY);
+        keys.add(reservationKey(aggregateId));
+        keys.add(RESERVATION_EXPIRY_KEY);
+        List<String> args = new ArrayList<>(1 + stockIds.size());
+        args.add(aggregateId);
+        for (String stockId : stockIds) {
+            keys.add(stockKey(stockId));
+            keys.add(reservationsKey(stockId));
+            args.add(stockId);
+        }
 
+        String result = redisTemplate.execute(releaseStockScript, keys, args.toArray());
+        stockIds.forEach(nearCache::invalidate);
         logger.info("Release result: {}", result);
         return result != null && result.startsWith("RELEASED");
     }
 
-    public void deleteFromActiveReservations(String stockId) {
-        Long removedCount = redisTemplate.opsForSet().remove(ACTIVE_RESERVATIONS_KEY, stockId);
-        if (removedCount != null && removedCount <= 0) {
-            logger.warn("Value not found in set, nothing removed");
+    /**
+     * Drops the reservation of a completed order (hash, per stock and expiry indexes) without giving the stock
+     * back, so the expiry never releases it.
+     */
+    public void completeReservation(String aggregateId, Collection<String> stockIds) {
+        List<String> keys = new ArrayList<>(3 + stockIds.size());
+        keys.add(ACTIVE_RESERVATIONS_KEY);
+        keys.add(reservationKey(aggregateId));
+        keys.add(RESERVATION_EXPIRY_KEY);
+        List<String> args = new ArrayList<>(1 + stockIds.size());
+        args.add(aggregateId);
+        for (String stockId : stockIds) {
+            keys.add(reservationsKey(stockId));
+            args.add(stockId);
+        }
+
+        Long removed = redisTemplate.execute(completeReservationScript, keys, args.toArray());
+        if (removed == null || removed == 0) {
+            logger.warn("No reservation of order {} to complete", aggregateId);
         }
     }
 
+    /**
+     * Releases the due reservations in batches of {@link SagaConstants#RELEASE_RESOURCE_BATCH_SIZE}, one script
+     * call each, so Redis is never blocked for long. A run stops after
+     * {@link SagaConstants#RELEASE_RESOURCE_MAX_BATCHES}, the next one resumes from the oldest due reservation.
+     */
     @Scheduled(fixedDelay = SagaConstants.RELEASE_RESOURCE_SCHEDULER_MS)
     public void cleanupExpired() {
         long now = System.currentTimeMillis() / 1000;
-        int limit = 100;
 
         List<String> keys = List.of(
                 STOCK_KEY,
                 RESERVATIONS_KEY,
-                ACTIVE_RESERVATIONS_KEY
-        );
-        List<String> expiredProducts = redisTemplate.execute(
-                cleanupAllExpiredScript,
-                keys,
-                String.valueOf(now), String.valueOf(limit)
+                ACTIVE_RESERVATIONS_KEY,
+                RESERVATION_EXPIRY_KEY
         );
-
-        if (expiredProducts != null && !expiredProducts.isEmpty()) {
-            logger.info("Expired product reservations: {}", expiredProducts);
+        for (int batch = 0; batch < SagaConstants.RELEASE_RESOURCE_MAX_BATCHES; batch++) {
+            List<String> expiredOrders = redisTemplate.execute(
+                    cleanupAllExpiredScript,
+                    keys,
+                    String.valueOf(now), String.valueOf(SagaConstants.RELEASE_RESOURCE_BATCH_SIZE)
+            );
+            if (expiredOrders == null || expiredOrders.isEmpty()) {
+                return;
+            }
+            logger.info("Expired order reservations: {}", expiredOrders);
             // Optionally trigger DB sync or Kafka event
+            if (expiredOrders.size() < SagaConstants.RELEASE_RESOURCE_BATCH_SIZE) {
+                return;
+            }
         }
+        logger.warn("Reservation expiry is behind, the rest is left to the next run");
     }
 
     private static String stockKey(String stockId) {
@@ -120,10 +192,15 @@ public class RedisStockService {
 
     public long increaseStockAmount(String stockId, int amount) {
         Long newStock = redisTemplate.opsForValue().increment(stockKey(stockId), amount);
+        nearCache.invalidate(stockId);
         return newStock != null ? newStock : 0L;
     }
 
     public int getStockAmount(String stockId) {
+        return nearCache.get(stockId, this::readStockAmount);
+    }
+
+    private int readStockAmount(String stockId) {
         String quantityStr = redisTemplate.opsForValue().get(stockKey(stockId));
         if (quantityStr != null) {
             return Integer.parseInt(quantityStr);
@@ -138,6 +215,7 @@ public class RedisStockService {
             return false;
         }
         Boolean result = redisTemplate.delete(stockKey(stockId));
+        nearCache.invalidate(stockId);
         return Boolean.TRUE.equals(result);
     }
 }
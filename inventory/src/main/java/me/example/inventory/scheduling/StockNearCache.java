@@ -0,0 +1,65 @@
+package me.example.inventory.scheduling;
+
+import com.example.common.statics.SagaConstants;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.ToIntFunction;
+
+/**
+ * Local copy of the hot stock amounts, bounded by {@link SagaConstants#STOCK_NEAR_CACHE_SIZE} and kept at most
+ * {@link SagaConstants#STOCK_NEAR_CACHE_TTL_MS}. Entries are invalidated by the writes of this node and by the
+ * Redis keyspace notifications of the {@code stock:*} keys (see StockNearCacheConfig), the TTL bounds the
+ * staleness when a notification is lost. Disabled unless saga.stock-cache.enabled=true, reads then go to Redis.
+ */
+@Component
+public class StockNearCache {
+    private final Cache<String, Integer> cache;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter invalidations;
+
+    public StockNearCache(@Value("${saga.stock-cache.enabled:false}") boolean enabled, MeterRegistry meterRegistry) {
+        this.cache = enabled
+                ? Caffeine.newBuilder()
+                    .maximumSize(SagaConstants.STOCK_NEAR_CACHE_SIZE)
+                    .expireAfterWrite(Duration.ofMillis(SagaConstants.STOCK_NEAR_CACHE_TTL_MS))
+                    .build()
+                : null;
+        this.hits = meterRegistry.counter("inventory.stock.near-cache", "result", "hit");
+        this.misses = meterRegistry.counter("inventory.stock.near-cache", "result", "miss");
+        this.invalidations = meterRegistry.counter("inventory.stock.near-cache.invalidations");
+    }
+
+    public int get(String stockId, ToIntFunction<String> loader) {
+        if (cache == null) {
+            return loader.applyAsInt(stockId);
+        }
+        Integer cached = cache.getIfPresent(stockId);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        //An invalidation racing with the load waits for it, then drops the loaded value
+        return cache.get(stockId, loader::applyAsInt);
+    }
+
+    public void invalidate(String stockId) {
+        if (cache != null) {
+            invalidations.increment();
+            cache.invalidate(stockId);
+        }
+    }
+
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+}
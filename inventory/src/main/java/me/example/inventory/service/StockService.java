@@ -7,6 +7,7 @@ import com.example.common.messaging.model.BaseEvent;
 import com.example.common.messaging.model.mapper.EventCommandMapper;
 import lombok.RequiredArgsConstructor;
 import me.example.inventory.dto.StockIn;
+import me.example.inventory.dto.StockLine;
 import me.example.inventory.dto.StockOut;
 import me.example.inventory.messaging.InventoryEventPublisher;
 import me.example.inventory.scheduling.RedisStockService;
@@ -16,6 +17,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
@@ -45,8 +48,8 @@ public class StockService {
         try {
             stockOrderService.completed(event.getAggregateId());
 
-            String stockId = event.getPayload().get("stockId").asText();
-            redisStockService.deleteFromActiveReservations(stockId);
+            List<String> stockIds = StockLine.fromPayload(event.getPayload()).stream().map(StockLine::stockId).toList();
+            redisStockService.completeReservation(event.getAggregateId(), stockIds);
         } catch (Exception e) {
             logger.error("Failed to complete stock order {} due to {}", event.getAggregateId(), e.getMessage());
             TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
@@ -58,9 +61,8 @@ public class StockService {
         try {
             stockOrderService.createIfNotCompletedExists(command.getAggregateId());
 
-            String id = command.getPayload().get("stockId").asText();
-            int quantity = command.getPayload().get("quantity").asInt();
-            success = redisStockService.reserveStock(command.getAggregateId(), id, quantity);
+            List<StockLine> lines = StockLine.fromPayload(command.getPayload());
+            success = redisStockService.reserveStock(command.getAggregateId(), lines);
         } catch (Exception e) {
             logger.error("Reserve stock order failed for {} due to {} ", command.getAggregateId(), e.getMessage());
             TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
@@ -83,8 +85,8 @@ public class StockService {
         try {
             stockOrderService.delete(command.getAggregateId());
 
-            String id = command.getPayload().get("stockId").asText();
-            success = redisStockService.releaseStock(command.getAggregateId(), id);
+            List<String> stockIds = StockLine.fromPayload(command.getPayload()).stream().map(StockLine::stockId).toList();
+            success = redisStockService.releaseStock(command.getAggregateId(), stockIds);
         } catch (Exception e) {
             logger.error("Release stock order failed for {} due to {}", command.getAggregateId(), e.getMessage());
             TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
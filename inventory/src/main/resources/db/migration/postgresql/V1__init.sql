@@ -0,0 +1,13 @@
+-- Inventory schema for the postgres profile (H2 keeps ddl-auto: update).
+
+CREATE TABLE stock_reservation
+(
+    id           VARCHAR(36)  NOT NULL,
+    created_at   TIMESTAMP(6) NOT NULL,
+    updated_at   TIMESTAMP(6) NOT NULL,
+    version      BIGINT,
+    aggregate_id VARCHAR(255) NOT NULL,
+    completed    BOOLEAN      NOT NULL,
+    CONSTRAINT pk_stock_reservation PRIMARY KEY (id),
+    CONSTRAINT uk_stock_reservation_aggregate_id UNIQUE (aggregate_id)
+);
@@ -0,0 +1,22 @@
+-- Forgets the reservation of a completed order, the reserved stock stays taken
+-- KEYS[1] = active_reservations
+-- KEYS[2] = reservation:{orderId}
+-- KEYS[3] = reservation_expiry
+-- KEYS[i+3] = reservations:{productId of line i}
+-- ARGV[1] = orderId
+-- ARGV[i+1] = productId of line i
+
+local orderId = ARGV[1]
+
+for i = 1, #ARGV - 1 do
+    local productId = ARGV[i + 1]
+    local resKey = KEYS[i + 3]
+    redis.call('ZREM', resKey, orderId)
+    if redis.call('ZCARD', resKey) == 0 then
+        redis.call('SREM', KEYS[1], productId)
+    end
+end
+
+-- Out of the expiry index, so the stock is never given back
+redis.call('ZREM', KEYS[3], orderId)
+return redis.call('DEL', KEYS[2])
@@ -1,46 +1,51 @@
+-- Releases the reservations due by now, oldest first
 -- KEYS[1] = stock:
 -- KEYS[2] = reservations:
 -- KEYS[3] = active_reservations
+-- KEYS[4] = reservation_expiry
 -- ARGV[1] = now
 -- ARGV[2] = limit
 
 local now = tonumber(ARGV[1])
 local limit = tonumber(ARGV[2])
-local expiredProducts = {}
 
-local products = redis.call('SMEMBERS', KEYS[3])
-for _, productId in ipairs(products) do
-    local resKey = KEYS[2] .. productId
-    local stockKey = KEYS[1] .. productId
-
-    local expiredOrders = redis.call('ZRANGEBYSCORE', resKey, '-inf', now)
-    local totalRestored = 0
-
-    for _, orderId in ipairs(expiredOrders) do
-        local resHash = "reservation:" .. orderId
-        local qtyStr = redis.call('HGET', resHash, 'qty')
-        local qty = tonumber(qtyStr or '0')
-
-        if qty > 0 then
-            totalRestored = totalRestored + qty
-        end
-
-        redis.call('ZREM', resKey, orderId)
-        redis.call('DEL', resHash)
-    end
+-- Only the due orders are read, the cost does not depend on the number of products
+local expiredOrders = redis.call('ZRANGEBYSCORE', KEYS[4], '-inf', now, 'LIMIT', 0, limit)
 
-    if totalRestored > 0 then
-        redis.call('INCRBY', stockKey, totalRestored)
-        table.insert(expiredProducts, productId)
+local function release(orderId, productId, qty)
+    local resKey = KEYS[2] .. productId
+    if qty > 0 then
+        redis.call('INCRBY', KEYS[1] .. productId, qty)
     end
-
+    redis.call('ZREM', resKey, orderId)
     if redis.call('ZCARD', resKey) == 0 then
         redis.call('SREM', KEYS[3], productId)
     end
+end
 
-    if #expiredProducts >= limit then
-        break
+for _, orderId in ipairs(expiredOrders) do
+    local resHash = "reservation:" .. orderId
+    local fields = redis.call('HGETALL', resHash)
+    local legacyProductId
+    local legacyQty = 0
+
+    for i = 1, #fields, 2 do
+        local productId = string.match(fields[i], '^qty:(.+)$')
+        if productId then
+            release(orderId, productId, tonumber(fields[i + 1]))
+        elseif fields[i] == 'productId' then
+            legacyProductId = fields[i + 1]
+        elseif fields[i] == 'qty' then
+            legacyQty = tonumber(fields[i + 1])
+        end
+    end
+    -- Reservation made before the multi-line hash: a single line in the qty and productId fields
+    if legacyProductId then
+        release(orderId, legacyProductId, legacyQty)
     end
+
+    redis.call('DEL', resHash)
+    redis.call('ZREM', KEYS[4], orderId)
 end
 
-return expiredProducts
+return expiredOrders
@@ -0,0 +1,17 @@
+-- Adds the reservations made before the global due-time index to it, once after an upgrade
+-- KEYS[1] = reservations:
+-- KEYS[2] = active_reservations
+-- KEYS[3] = reservation_expiry
+-- Returns the number of reservations added
+
+local added = 0
+local products = redis.call('SMEMBERS', KEYS[2])
+for _, productId in ipairs(products) do
+    local reservations = redis.call('ZRANGE', KEYS[1] .. productId, 0, -1, 'WITHSCORES')
+    for i = 1, #reservations, 2 do
+        -- NX: the reservations already indexed keep their expiry
+        added = added + redis.call('ZADD', KEYS[3], 'NX', reservations[i + 1], reservations[i])
+    end
+end
+
+return added
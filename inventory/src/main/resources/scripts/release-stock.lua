@@ -1,26 +1,39 @@
--- KEYS[1] = stock:{productId}
--- KEYS[2] = reservations:{productId}
--- KEYS[3] = active_reservations
--- KEYS[4] = reservation:{orderId}
--- ARGV[1] = productId
--- ARGV[2] = orderId
+-- Releases every line of an order
+-- KEYS[1] = active_reservations
+-- KEYS[2] = reservation:{orderId}
+-- KEYS[3] = reservation_expiry
+-- KEYS[2i+2] = stock:{productId of line i}
+-- KEYS[2i+3] = reservations:{productId of line i}
+-- ARGV[1] = orderId
+-- ARGV[i+1] = productId of line i
 
-local productId = ARGV[1]
-local orderId = ARGV[2]
+local orderId = ARGV[1]
+local released = 0
 
--- Read qty from reservation hash
-local qtyStr = redis.call('HGET', KEYS[4], 'qty')
-local qty = tonumber(qtyStr or '0')
+for i = 1, #ARGV - 1 do
+    local productId = ARGV[i + 1]
+    local stockKey = KEYS[2 * i + 2]
+    local resKey = KEYS[2 * i + 3]
 
-if qty > 0 then
-    redis.call('INCRBY', KEYS[1], qty)
-    redis.call('ZREM', KEYS[2], orderId)
-    redis.call('DEL', KEYS[4])
-end
+    -- Read qty of the line from the reservation hash
+    local qty = tonumber(redis.call('HGET', KEYS[2], 'qty:' .. productId) or '0')
+    -- Reservation made before the multi-line hash: a single line in the qty and productId fields
+    if qty == 0 and redis.call('HGET', KEYS[2], 'productId') == productId then
+        qty = tonumber(redis.call('HGET', KEYS[2], 'qty') or '0')
+    end
+    if qty > 0 then
+        redis.call('INCRBY', stockKey, qty)
+        redis.call('ZREM', resKey, orderId)
+        released = released + qty
+    end
 
--- Clean active reservation if none remain
-if redis.call('ZCARD', KEYS[2]) == 0 then
-    redis.call('SREM', KEYS[3], productId)
+    -- Clean active reservation if none remain
+    if redis.call('ZCARD', resKey) == 0 then
+        redis.call('SREM', KEYS[1], productId)
+    end
 end
 
-return "RELEASED:" .. tostring(qty)
+redis.call('DEL', KEYS[2])
+redis.call('ZREM', KEYS[3], orderId)
+
+return "RELEASED:" .. tostring(released)
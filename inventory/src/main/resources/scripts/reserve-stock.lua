@@ -1,29 +1,46 @@
--- KEYS[1] = stock:{productId}
--- KEYS[2] = reservations:{productId}
--- KEYS[3] = active_reservations
--- KEYS[4] = reservation:{orderId}
+-- Reserves every line of an order, all or nothing
+-- KEYS[1] = active_reservations
+-- KEYS[2] = reservation:{orderId}
+-- KEYS[3] = reservation_expiry
+-- KEYS[2i+2] = stock:{productId of line i}
+-- KEYS[2i+3] = reservations:{productId of line i}
 -- ARGV[1] = orderId
--- ARGV[2] = quantity
--- ARGV[3] = now
--- ARGV[4] = ttlSeconds
--- ARGV[5] = productId
+-- ARGV[2] = now
+-- ARGV[3] = ttlSeconds
+-- ARGV[2i+2] = productId of line i
+-- ARGV[2i+3] = quantity of line i
 
 local orderId = ARGV[1]
-local qty = tonumber(ARGV[2])
-local now = tonumber(ARGV[3])
-local ttl = tonumber(ARGV[4])
-local productId = ARGV[5]
+local now = tonumber(ARGV[2])
+local ttl = tonumber(ARGV[3])
+local lines = (#ARGV - 3) / 2
 
-local stock = tonumber(redis.call('GET', KEYS[1]) or '0')
-if stock < qty then
-    return "INSUFFICIENT_STOCK"
+-- Redelivered command, the lines are already reserved
+local reservedAt = redis.call('HGET', KEYS[2], 'expireAt')
+if reservedAt then
+    return "RESERVED:" .. reservedAt
+end
+
+for i = 1, lines do
+    local productId = ARGV[2 * i + 2]
+    local qty = tonumber(ARGV[2 * i + 3])
+    local stock = tonumber(redis.call('GET', KEYS[2 * i + 2]) or '0')
+    if stock < qty then
+        return "INSUFFICIENT_STOCK:" .. productId
+    end
 end
 
 local expireAt = now + ttl
 
-redis.call('DECRBY', KEYS[1], qty)
-redis.call('ZADD', KEYS[2], expireAt, orderId)
-redis.call('SADD', KEYS[3], productId)
-redis.call('HSET', KEYS[4], 'qty', qty, 'productId', productId, 'expireAt', expireAt)
+for i = 1, lines do
+    local productId = ARGV[2 * i + 2]
+    local qty = tonumber(ARGV[2 * i + 3])
+    redis.call('DECRBY', KEYS[2 * i + 2], qty)
+    redis.call('ZADD', KEYS[2 * i + 3], expireAt, orderId)
+    redis.call('SADD', KEYS[1], productId)
+    redis.call('HSET', KEYS[2], 'qty:' .. productId, qty)
+end
+redis.call('HSET', KEYS[2], 'expireAt', expireAt)
+redis.call('ZADD', KEYS[3], expireAt, orderId)
 
 return "RESERVED:" .. expireAt
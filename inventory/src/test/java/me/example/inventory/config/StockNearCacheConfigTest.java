@@ -0,0 +1,21 @@
+package me.example.inventory.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StockNearCacheConfigTest {
+
+    @Test
+    void requiredFlagsAreAddedToTheServerSetting() {
+        assertThat(StockNearCacheConfig.mergeKeyspaceEvents("", "Kg$")).isEqualTo("Kg$");
+        assertThat(StockNearCacheConfig.mergeKeyspaceEvents("Ex", "Kg$")).isEqualTo("ExKg$");
+        assertThat(StockNearCacheConfig.mergeKeyspaceEvents("KEg", "Kg$")).isEqualTo("KEg$");
+    }
+
+    @Test
+    void flagsCoveredByAllAreNotRepeated() {
+        assertThat(StockNearCacheConfig.mergeKeyspaceEvents("AK", "Kg$")).isEqualTo("AK");
+        assertThat(StockNearCacheConfig.mergeKeyspaceEvents("AE", "Kg$")).isEqualTo("AEK");
+    }
+}
@@ -0,0 +1,171 @@
+package me.example.inventory.scheduling;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.example.inventory.dto.StockLine;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the stock scripts against an embedded Redis.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RedisStockServiceTest {
+    private RedisServer redisServer;
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+    private RedisStockService service;
+
+    @BeforeAll
+    void startRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        service = new RedisStockService(redisTemplate, new StockNearCache(false, new SimpleMeterRegistry()));
+    }
+
+    @AfterAll
+    void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void flush() {
+        redisTemplate.execute(connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        }, true);
+        service.increaseStockAmount("apple", 10);
+        service.increaseStockAmount("pear", 5);
+    }
+
+    @Test
+    void completedReservationIsNotReleasedByTheExpiry() {
+        assertThat(service.reserveStock("order-1", List.of(new StockLine("apple", 3)))).isTrue();
+
+        service.completeReservation("order-1", List.of("apple"));
+        service.cleanupExpired();
+        makeDue("order-1");
+        service.cleanupExpired();
+
+        assertThat(service.getStockAmount("apple")).isEqualTo(7);
+        assertThat(redisTemplate.hasKey("reservation:order-1")).isFalse();
+        assertThat(redisTemplate.opsForZSet().score("reservation_expiry", "order-1")).isNull();
+        assertThat(redisTemplate.opsForZSet().score("reservations:apple", "order-1")).isNull();
+        assertThat(redisTemplate.opsForSet().isMember("active_reservations", "apple")).isFalse();
+    }
+
+    @Test
+    void completionKeepsTheOtherOrdersActive() {
+        service.reserveStock("order-1", List.of(new StockLine("apple", 3)));
+        service.reserveStock("order-2", List.of(new StockLine("apple", 2)));
+
+        service.completeReservation("order-1", List.of("apple"));
+
+        assertThat(redisTemplate.opsForSet().isMember("active_reservations", "apple")).isTrue();
+        makeDue("order-2");
+        service.cleanupExpired();
+        assertThat(service.getStockAmount("apple")).isEqualTo(7);
+    }
+
+    @Test
+    void dueReservationIsReleased() {
+        service.reserveStock("order-1", List.of(new StockLine("apple", 3), new StockLine("pear", 1)));
+
+        makeDue("order-1");
+        service.cleanupExpired();
+
+        assertThat(service.getStockAmount("apple")).isEqualTo(10);
+        assertThat(service.getStockAmount("pear")).isEqualTo(5);
+        assertThat(redisTemplate.hasKey("reservation:order-1")).isFalse();
+    }
+
+    @Test
+    void reservationIsAllOrNothing() {
+        //The second line is short
+        boolean reserved = service.reserveStock("order-1",
+                List.of(new StockLine("apple", 3), new StockLine("pear", 6)));
+
+        assertThat(reserved).isFalse();
+        assertThat(service.getStockAmount("apple")).isEqualTo(10);
+        assertThat(service.getStockAmount("pear")).isEqualTo(5);
+        assertThat(redisTemplate.hasKey("reservation:order-1")).isFalse();
+        assertThat(redisTemplate.opsForZSet().score("reservation_expiry", "order-1")).isNull();
+    }
+
+    @Test
+    void redeliveredReservationIsReservedOnce() {
+        List<StockLine> lines = List.of(new StockLine("apple", 3), new StockLine("pear", 1));
+
+        assertThat(service.reserveStock("order-1", lines)).isTrue();
+        assertThat(service.reserveStock("order-1", lines)).isTrue();
+
+        assertThat(service.getStockAmount("apple")).isEqualTo(7);
+        assertThat(service.getStockAmount("pear")).isEqualTo(4);
+        assertThat(service.releaseStock("order-1", List.of("apple", "pear"))).isTrue();
+        assertThat(service.getStockAmount("apple")).isEqualTo(10);
+        assertThat(service.getStockAmount("pear")).isEqualTo(5);
+    }
+
+    @Test
+    void legacyReservationIsReleased() {
+        reserveLegacy("order-1", "apple", 3, System.currentTimeMillis() / 1000 + 60);
+
+        assertThat(service.releaseStock("order-1", List.of("apple"))).isTrue();
+
+        assertThat(service.getStockAmount("apple")).isEqualTo(10);
+        assertThat(redisTemplate.hasKey("reservation:order-1")).isFalse();
+        assertThat(redisTemplate.opsForSet().isMember("active_reservations", "apple")).isFalse();
+    }
+
+    @Test
+    void legacyReservationIsIndexedAndExpired() {
+        reserveLegacy("order-1", "apple", 3, 0);
+        service.reserveStock("order-2", List.of(new StockLine("apple", 2)));
+        Double order2ExpireAt = redisTemplate.opsForZSet().score("reservation_expiry", "order-2");
+
+        service.indexLegacyReservations();
+        service.cleanupExpired();
+
+        assertThat(service.getStockAmount("apple")).isEqualTo(8);
+        assertThat(redisTemplate.hasKey("reservation:order-1")).isFalse();
+        assertThat(redisTemplate.opsForZSet().score("reservation_expiry", "order-2")).isEqualTo(order2ExpireAt);
+        assertThat(redisTemplate.opsForSet().isMember("active_reservations", "apple")).isTrue();
+    }
+
+    //Hash layout of the single line reservations made before the multi-line scripts
+    private void reserveLegacy(String orderId, String productId, int qty, long expireAt) {
+        redisTemplate.opsForValue().decrement("stock:" + productId, qty);
+        redisTemplate.opsForZSet().add("reservations:" + productId, orderId, expireAt);
+        redisTemplate.opsForSet().add("active_reservations", productId);
+        redisTemplate.opsForHash().putAll("reservation:" + orderId, Map.of(
+                "qty", String.valueOf(qty), "productId", productId, "expireAt", String.valueOf(expireAt)));
+    }
+
+    private void makeDue(String orderId) {
+        if (redisTemplate.opsForZSet().score("reservation_expiry", orderId) != null) {
+            redisTemplate.opsForZSet().add("reservation_expiry", orderId, 0);
+        }
+    }
+}
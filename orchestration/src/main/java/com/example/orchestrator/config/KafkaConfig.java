@@ -2,13 +2,22 @@ package com.example.orchestrator.config;
 
 import com.example.common.messaging.model.BaseCommand;
 import com.example.common.messaging.model.BaseEvent;
+import com.example.common.messaging.serde.SagaMessageDeserializer;
+import com.example.common.messaging.serde.SagaMessageSerializer;
+import com.example.common.messaging.serde.SagaSerdeConfig;
 import com.example.common.statics.KafkaNames;
 import com.example.common.statics.SagaConstants;
+import com.example.orchestrator.service.SagaInstanceCache;
 import com.example.orchestrator.service.SagaInstanceService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import org.apache.kafka.clients.admin.AdminClientConfig;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.RangeAssignor;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -19,24 +28,37 @@ import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.*;
 import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.listener.DefaultErrorHandler;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
-import org.springframework.kafka.support.serializer.JsonSerializer;
-import org.springframework.retry.backoff.FixedBackOffPolicy;
-import org.springframework.retry.policy.SimpleRetryPolicy;
-import org.springframework.retry.support.RetryTemplate;
 import org.springframework.util.backoff.FixedBackOff;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
 @Configuration
+@RequiredArgsConstructor
 public class KafkaConfig {
-    private static final int PARTITIONS = 1;
     private static final short REPLICATION = 1;
 
+    private final MeterRegistry meterRegistry;
+
     @Value(value = "${spring.kafka.bootstrap-servers}")
     private String bootstrapAddress;
 
+    //Must be equal for all saga topics: messages are keyed by aggregateId, so the same key lands on the same
+    //partition index of every topic and the range assignor hands it to the same listener thread
+    @Value(value = "${saga.kafka.partitions:1}")
+    private int partitions;
+
+    @Value(value = "${saga.kafka.listener-concurrency:1}")
+    private int concurrency;
+
+    //See SagaSerdeConfig
+    @Value(value = "${saga.kafka.serde.format:json}")
+    private String serdeFormat;
+
+    @Value(value = "${saga.kafka.serde.binary-topics:}")
+    private String binaryTopics;
+
     // ====================
     // KafkaAdmin (Topic Creation)
     // ====================
@@ -53,7 +75,7 @@ public class KafkaConfig {
     @Bean
     public NewTopic orderCommandsTopic() {
         return TopicBuilder.name(KafkaNames.ORDER_COMMANDS)
-                .partitions(PARTITIONS)
+                .partitions(partitions)
                 .replicas(REPLICATION)
                 .build();
     }
@@ -61,7 +83,7 @@ public class KafkaConfig {
     @Bean
     public NewTopic inventoryCommandsTopic() {
         return TopicBuilder.name(KafkaNames.INVENTORY_COMMANDS)
-                .partitions(PARTITIONS)
+                .partitions(partitions)
                 .replicas(REPLICATION)
                 .build();
     }
@@ -69,7 +91,7 @@ public class KafkaConfig {
     @Bean
     public NewTopic paymentCommandsTopic() {
         return TopicBuilder.name(KafkaNames.PAYMENT_COMMANDS)
-                .partitions(PARTITIONS)
+                .partitions(partitions)
                 .replicas(REPLICATION)
                 .build();
     }
@@ -80,7 +102,7 @@ public class KafkaConfig {
     @Bean
     public NewTopic orderEventsTopic() {
         return TopicBuilder.name(KafkaNames.ORDER_EVENTS)
-                .partitions(PARTITIONS)
+                .partitions(partitions)
                 .replicas(REPLICATION)
                 .build();
     }
@@ -88,7 +110,7 @@ public class KafkaConfig {
     @Bean
     public NewTopic inventoryEventsTopic() {
         return TopicBuilder.name(KafkaNames.INVENTORY_EVENTS)
-                .partitions(PARTITIONS)
+                .partitions(partitions)
                 .replicas(REPLICATION)
                 .build();
     }
@@ -96,7 +118,7 @@ public class KafkaConfig {
     @Bean
     public NewTopic paymentEventsTopic() {
         return TopicBuilder.name(KafkaNames.PAYMENT_EVENTS)
-                .partitions(PARTITIONS)
+                .partitions(partitions)
                 .replicas(REPLICATION)
                 .build();
     }
@@ -104,7 +126,7 @@ public class KafkaConfig {
     @Bean
     public NewTopic sagaEventsTopic() {
         return TopicBuilder.name(KafkaNames.SAGA_EVENTS)
-                .partitions(PARTITIONS)
+                .partitions(partitions)
                 .replicas(REPLICATION)
                 .build();
     }
@@ -117,7 +139,9 @@ public class KafkaConfig {
         Map<String, Object> props = new HashMap<>();
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapAddress);
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, SagaMessageSerializer.class);
+        props.put(SagaSerdeConfig.VALUE_FORMAT, serdeFormat);
+        props.put(SagaSerdeConfig.BINARY_TOPICS, binaryTopics);
 
         // --- Timeout-related properties ---
         //delivery.timeout.ms = (number of retries * (request.timeout.ms + retry.backoff.ms))
@@ -125,7 +149,9 @@ public class KafkaConfig {
         props.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, SagaConstants.REQUEST_TIMEOUT_MS);
         props.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, SagaConstants.DELIVERY_TIMEOUT_MS);
 
-        return new DefaultKafkaProducerFactory<>(props);
+        DefaultKafkaProducerFactory<String, BaseCommand> factory = new DefaultKafkaProducerFactory<>(props);
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return factory;
     }
 
     @Bean
@@ -138,8 +164,12 @@ public class KafkaConfig {
         Map<String, Object> props = new HashMap<>();
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapAddress);
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        return new DefaultKafkaProducerFactory<>(props);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, SagaMessageSerializer.class);
+        props.put(SagaSerdeConfig.VALUE_FORMAT, serdeFormat);
+        props.put(SagaSerdeConfig.BINARY_TOPICS, binaryTopics);
+        DefaultKafkaProducerFactory<String, BaseEvent> factory = new DefaultKafkaProducerFactory<>(props);
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return factory;
     }
 
     @Bean
@@ -147,42 +177,66 @@ public class KafkaConfig {
         return new KafkaTemplate<>(eventProducerFactory());
     }
 
-    @Bean
-    public RetryTemplate retryTemplate() {
-        RetryTemplate template = new RetryTemplate();
-
-        FixedBackOffPolicy backOff = new FixedBackOffPolicy();
-        backOff.setBackOffPeriod(SagaConstants.RETRY_INTERVAL); // 1s delay between retries
-        template.setBackOffPolicy(backOff);
-
-        SimpleRetryPolicy retryPolicy = new SimpleRetryPolicy(SagaConstants.RETRY_THRESHOLD); // 3 retries
-        template.setRetryPolicy(retryPolicy);
-
-        return template;
-    }
-
 
     @Bean
     public ConsumerFactory<String, BaseEvent> consumerFactory() {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapAddress);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
-        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, BaseEvent.class);
-        return new DefaultKafkaConsumerFactory<>(props);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, SagaMessageDeserializer.class);
+        props.put(SagaSerdeConfig.VALUE_TYPE, BaseEvent.class);
+        //Keeps partition N of every event topic on the same listener thread (see partitions)
+        props.put(ConsumerConfig.PARTITION_ASSIGNMENT_STRATEGY_CONFIG, RangeAssignor.class.getName());
+        DefaultKafkaConsumerFactory<String, BaseEvent> factory = new DefaultKafkaConsumerFactory<>(props);
+        //Kafka client metrics, including kafka.consumer.fetch.manager.records.lag.max (consumer lag)
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
     }
 
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, BaseEvent> kafkaListenerContainerFactory(
-            SagaInstanceService instanceService) {
+            SagaInstanceService instanceService, SagaInstanceCache instanceCache) {
         ConcurrentKafkaListenerContainerFactory<String, BaseEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        factory.setConcurrency(concurrency);
         factory.setCommonErrorHandler(errorHandler(instanceService));
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.RECORD);
+        factory.getContainerProperties().setConsumerRebalanceListener(evictingRebalanceListener(instanceCache));
+        return factory;
+    }
+
+    //Used by SagaListener#onEvents when saga.kafka.batch-listener.enabled=true
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, BaseEvent> batchKafkaListenerContainerFactory(
+            SagaInstanceService instanceService, SagaInstanceCache instanceCache) {
+        ConcurrentKafkaListenerContainerFactory<String, BaseEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setConcurrency(concurrency);
+        factory.setBatchListener(true);
+        factory.setCommonErrorHandler(errorHandler(instanceService));
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        factory.getContainerProperties().setConsumerRebalanceListener(evictingRebalanceListener(instanceCache));
         return factory;
     }
 
+    //Cached instances of a partition may have been changed by its previous owner
+    private static ConsumerRebalanceListener evictingRebalanceListener(SagaInstanceCache instanceCache) {
+        return new ConsumerRebalanceListener() {
+            @Override
+            public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+                if (!partitions.isEmpty()) {
+                    instanceCache.evictAll();
+                }
+            }
+
+            @Override
+            public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+            }
+        };
+    }
+
     //Consumer Failure
     @Bean
     public DefaultErrorHandler errorHandler(SagaInstanceService instanceService) {
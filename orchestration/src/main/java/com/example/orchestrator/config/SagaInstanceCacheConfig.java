@@ -0,0 +1,68 @@
+package com.example.orchestrator.config;
+
+import com.example.common.statics.SagaConstants;
+import com.example.orchestrator.service.SagaInstanceCache;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hibernate second-level cache regions of {@link SagaInstanceCache}, bounded Caffeine caches through JCache.
+ * Disabled with saga.instance-cache.enabled=false: the second-level cache is then switched off explicitly,
+ * otherwise Hibernate would pick the JCache region factory found on the classpath and create unbounded regions.
+ */
+@Configuration
+public class SagaInstanceCacheConfig {
+    private static final String ENABLED = "saga.instance-cache.enabled";
+
+    //Closed by Hibernate with the session factory
+    @Bean(destroyMethod = "")
+    @ConditionalOnProperty(name = ENABLED, havingValue = "true", matchIfMissing = true)
+    public CacheManager sagaInstanceCacheManager() {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager();
+        createRegion(cacheManager, SagaInstanceCache.INSTANCES, SagaConstants.SAGA_INSTANCE_CACHE_SIZE);
+        createRegion(cacheManager, SagaInstanceCache.INSTANCE_STEPS, SagaConstants.SAGA_INSTANCE_CACHE_SIZE);
+        //A saga has a few steps
+        createRegion(cacheManager, SagaInstanceCache.STEPS, 4L * SagaConstants.SAGA_INSTANCE_CACHE_SIZE);
+        return cacheManager;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = ENABLED, havingValue = "true", matchIfMissing = true)
+    public HibernatePropertiesCustomizer sagaInstanceCacheProperties(CacheManager sagaInstanceCacheManager) {
+        return properties -> {
+            properties.put("hibernate.cache.use_second_level_cache", true);
+            properties.put("hibernate.cache.region.factory_class", "jcache");
+            properties.put("hibernate.javax.cache.cache_manager", sagaInstanceCacheManager);
+            //Only the bounded regions above
+            properties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = ENABLED, havingValue = "false")
+    public HibernatePropertiesCustomizer sagaInstanceCacheDisabledProperties() {
+        return properties -> properties.put("hibernate.cache.use_second_level_cache", false);
+    }
+
+    private static void createRegion(CacheManager cacheManager, String name, long maximumSize) {
+        if (cacheManager.getCache(name) != null) {
+            return;
+        }
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpireAfterAccess(OptionalLong.of(
+                TimeUnit.MILLISECONDS.toNanos(SagaConstants.SAGA_INSTANCE_CACHE_IDLE_MS)));
+        configuration.setStatisticsEnabled(true);
+        cacheManager.createCache(name, configuration);
+    }
+}
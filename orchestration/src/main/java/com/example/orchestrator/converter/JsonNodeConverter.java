@@ -1,41 +0,0 @@
-package com.example.orchestrator.converter;
-
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import jakarta.persistence.AttributeConverter;
-import jakarta.persistence.Converter;
-import lombok.RequiredArgsConstructor;
-import org.springframework.stereotype.Component;
-
-@Converter(autoApply = true)
-@Component
-@RequiredArgsConstructor
-public class JsonNodeConverter implements AttributeConverter<JsonNode, String> {
-
-    private final ObjectMapper objectMapper;
-
-    @Override
-    public String convertToDatabaseColumn(JsonNode jsonNode) {
-        if (jsonNode == null) {
-            return null;
-        }
-        try {
-            return objectMapper.writeValueAsString(jsonNode);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Could not convert JsonNode to String", e);
-        }
-    }
-
-    @Override
-    public JsonNode convertToEntityAttribute(String jsonString) {
-        if (jsonString == null) {
-            return null;
-        }
-        try {
-            return objectMapper.readTree(jsonString);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Could not convert String to JsonNode", e);
-        }
-    }
-}
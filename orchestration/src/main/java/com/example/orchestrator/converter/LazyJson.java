@@ -0,0 +1,95 @@
+package com.example.orchestrator.converter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serial;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * JSON column value that keeps the bytes read from the database and parses them on the first {@link #get()},
+ * so loading an entity (e.g. to validate a reply) costs no tree parsing.
+ * Treat the returned tree as read-only: the value is immutable for Hibernate, set a new one instead.
+ * Hibernate keeps immutable values as is in the second-level cache, which requires them to be serializable:
+ * only the bytes are, the tree is parsed again on the first {@link #get()} after a copy.
+ */
+public final class LazyJson implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private volatile byte[] bytes;
+    private transient volatile JsonNode node;
+
+    private LazyJson(byte[] bytes, JsonNode node) {
+        this.bytes = bytes;
+        this.node = node;
+    }
+
+    public static LazyJson of(JsonNode node) {
+        return node != null ? new LazyJson(null, node) : null;
+    }
+
+    public static LazyJson ofBytes(byte[] bytes) {
+        return bytes != null ? new LazyJson(bytes, null) : null;
+    }
+
+    public JsonNode get() {
+        JsonNode result = node;
+        if (result == null) {
+            try {
+                result = MAPPER.readTree(bytes);
+            } catch (IOException e) {
+                throw new RuntimeException("Could not convert bytes to JsonNode", e);
+            }
+            node = result;
+        }
+        return result;
+    }
+
+    public byte[] bytes() {
+        byte[] result = bytes;
+        if (result == null) {
+            try {
+                result = MAPPER.writeValueAsBytes(node);
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Could not convert JsonNode to bytes", e);
+            }
+            bytes = result;
+        }
+        return result;
+    }
+
+    @Serial
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        bytes();
+        out.defaultWriteObject();
+    }
+
+    public boolean isParsed() {
+        return node != null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof LazyJson other && Arrays.equals(bytes(), other.bytes());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(bytes());
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes(), StandardCharsets.UTF_8);
+    }
+}
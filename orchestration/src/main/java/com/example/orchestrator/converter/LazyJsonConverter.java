@@ -0,0 +1,25 @@
+package com.example.orchestrator.converter;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Maps {@link LazyJson} to the UTF-8 bytes of a JSON column. H2 parses bound bytes as JSON text, so the column
+ * is declared as native JSON. Immutable: Hibernate neither deep copies the value on load nor re-serializes it
+ * for dirty checking.
+ */
+@Converter(autoApply = true)
+@Immutable
+public class LazyJsonConverter implements AttributeConverter<LazyJson, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(LazyJson json) {
+        return json != null ? json.bytes() : null;
+    }
+
+    @Override
+    public LazyJson convertToEntityAttribute(byte[] bytes) {
+        return LazyJson.ofBytes(bytes);
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.orchestrator.dao;
+
+import com.example.orchestrator.entity.OutBoxEntity;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutBoxDao extends JpaRepository<OutBoxEntity, String> {
+    //-2 = SKIP LOCKED, so several orchestrator nodes can claim concurrently without claiming a row twice
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM OutBoxEntity o WHERE o.leaseUntil IS NULL OR o.leaseUntil < :now ORDER BY o.createdAt")
+    List<OutBoxEntity> findDue(LocalDateTime now, Pageable pageable);
+}
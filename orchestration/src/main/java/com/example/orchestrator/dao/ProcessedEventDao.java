@@ -0,0 +1,16 @@
+package com.example.orchestrator.dao;
+
+import com.example.orchestrator.entity.ProcessedEventEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ProcessedEventDao extends JpaRepository<ProcessedEventEntity, String> {
+    @Modifying
+    @Query("DELETE FROM ProcessedEventEntity e WHERE e.processedAt < :before")
+    int deleteAllProcessedBefore(LocalDateTime before);
+}
@@ -3,8 +3,10 @@ package com.example.orchestrator.dao;
 import com.example.common.messaging.enums.EventType;
 import com.example.orchestrator.entity.SagaEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +14,7 @@ public interface SagaDao extends JpaRepository<SagaEntity, String> {
     Optional<SagaEntity> findByTriggerEvent(EventType eventType);
 
     boolean existsByName(String name);
+
+    @Query("SELECT DISTINCT s FROM SagaEntity s LEFT JOIN FETCH s.steps")
+    List<SagaEntity> findAllWithSteps();
 }
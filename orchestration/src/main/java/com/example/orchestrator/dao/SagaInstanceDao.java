@@ -5,6 +5,8 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,5 +14,8 @@ public interface SagaInstanceDao extends JpaRepository<SagaInstanceEntity, Strin
     @Query("SELECT s FROM SagaInstanceEntity s LEFT JOIN FETCH s.steps WHERE s.id = :id")
     Optional<SagaInstanceEntity> findByIdWithSteps(String id);
 
+    @Query("SELECT DISTINCT s FROM SagaInstanceEntity s LEFT JOIN FETCH s.steps WHERE s.id IN :ids")
+    List<SagaInstanceEntity> findAllByIdWithSteps(Collection<String> ids);
+
     boolean existsByAggregateId(String triggerAggregateId);
 }
@@ -1,10 +1,23 @@
 package com.example.orchestrator.dao;
 
+import com.example.common.enums.ExecutionState;
+import com.example.orchestrator.dto.PendingTimeout;
 import com.example.orchestrator.entity.SagaStarterEventEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Repository
 public interface SagaStarterEventDao extends JpaRepository<SagaStarterEventEntity, String> {
 
+    //Keyset page (by event id) of the timeouts of the instances in the given status created before a time
+    @Query("SELECT new com.example.orchestrator.dto.PendingTimeout(e.id, i.expiresAt) FROM SagaStarterEventEntity e " +
+            "JOIN e.instance i WHERE i.status = :status AND i.expiresAt IS NOT NULL " +
+            "AND i.createdAt < :createdBefore AND e.id > :after ORDER BY e.id")
+    List<PendingTimeout> findPendingTimeouts(ExecutionState status, LocalDateTime createdBefore, String after,
+                                             Pageable pageable);
 }
@@ -0,0 +1,7 @@
+package com.example.orchestrator.dto;
+
+import java.time.LocalDateTime;
+
+//Timeout of a running saga instance, keyed by its starter event id
+public record PendingTimeout(String eventId, LocalDateTime expiresAt) {
+}
@@ -0,0 +1,45 @@
+package com.example.orchestrator.dto;
+
+import com.example.common.messaging.enums.EventType;
+import com.example.orchestrator.entity.SagaEntity;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable, compiled view of a {@link SagaEntity} and its steps.
+ * Steps are sorted by {@code stepOrder} and indexed for constant-time lookup.
+ */
+public record SagaDefinition(String id, String name, boolean active, EventType triggerEvent, SagaDto saga,
+                             List<SagaStepDto> steps, Map<Integer, SagaStepDto> stepsByOrder) {
+
+    public SagaDefinition(SagaEntity entity) {
+        this(entity, entity.getSteps().stream()
+                .map(SagaStepDto::new)
+                .sorted(Comparator.comparing(SagaStepDto::stepOrder))
+                .toList());
+    }
+
+    private SagaDefinition(SagaEntity entity, List<SagaStepDto> sortedSteps) {
+        this(entity.getId(), entity.getName(), Boolean.TRUE.equals(entity.getActive()), entity.getTriggerEvent(),
+                new SagaDto(entity), sortedSteps,
+                sortedSteps.stream().collect(Collectors.toUnmodifiableMap(SagaStepDto::stepOrder,
+                        Function.identity())));
+    }
+
+    public SagaStepDto getStep(int stepOrder) {
+        return stepsByOrder.get(stepOrder);
+    }
+
+    public SagaStepDto getLastStep() {
+        return steps.isEmpty() ? null : steps.get(steps.size() - 1);
+    }
+
+    public int size() {
+        return steps.size();
+    }
+}
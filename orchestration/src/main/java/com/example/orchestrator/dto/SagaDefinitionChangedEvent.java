@@ -0,0 +1,4 @@
+package com.example.orchestrator.dto;
+
+public record SagaDefinitionChangedEvent(String sagaId) {
+}
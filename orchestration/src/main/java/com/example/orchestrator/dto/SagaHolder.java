@@ -2,14 +2,11 @@ package com.example.orchestrator.dto;
 
 import com.example.orchestrator.entity.SagaInstanceEntity;
 
-import java.util.List;
-
 public record SagaHolder(String sagaId, SagaInstanceEntity instance,
-                         List<SagaStepDto> sagaSteps, boolean start, boolean success) {
+                         SagaDefinition saga, boolean start, boolean success) {
 
-    public static SagaHolder success(String sagaId, SagaInstanceEntity instance,
-                                     List<SagaStepDto> sagaSteps, boolean start) {
-        return new SagaHolder(sagaId, instance, sagaSteps, start, true);
+    public static SagaHolder success(SagaInstanceEntity instance, SagaDefinition saga, boolean start) {
+        return new SagaHolder(instance.getSagaId(), instance, saga, start, true);
     }
 
     public static SagaHolder fail() {
@@ -0,0 +1,50 @@
+package com.example.orchestrator.entity;
+
+import com.example.common.entity.BaseEntity;
+import com.example.common.messaging.enums.EventType;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+//A command waiting to be relayed to Kafka, written in the same transaction as the saga state.
+@Setter
+@Getter
+@Entity
+@Table(name = "saga_outbox", indexes = @Index(name = "idx_saga_outbox_created_at", columnList = "created_at"))
+public class OutBoxEntity extends BaseEntity {
+    //Kafka topic to send command
+    @Column(nullable = false)
+    private String topic;
+
+    @Column(nullable = false)
+    private String aggregateId;
+
+    @Column(name = "instance_id")
+    private String sagaInstanceId;
+
+    //Event that caused this command
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private EventType triggerEvent;
+
+    //Serialized BaseCommand
+    @Column(columnDefinition = "CLOB", nullable = false)
+    private String command;
+
+    //Failed send attempts
+    @Column(nullable = false)
+    private Short attempts = 0;
+
+    @Column
+    private String lastError;
+
+    //Claimed by a relay until then (send in flight, or retry backoff after a failure); null when due
+    @Column
+    private LocalDateTime leaseUntil;
+
+    public void incrementAttempts() {
+        attempts++;
+    }
+}
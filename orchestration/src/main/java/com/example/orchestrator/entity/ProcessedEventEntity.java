@@ -0,0 +1,44 @@
+package com.example.orchestrator.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+//Id of an event already handled by the orchestrator, written in the same transaction as its effects
+@Setter
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "processed_event", indexes = @Index(name = "idx_processed_event_at", columnList = "processedAt"))
+public class ProcessedEventEntity implements Persistable<String> {
+    @Id
+    @Column(unique = true, updatable = false, nullable = false)
+    private String id;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime processedAt;
+
+    //Always inserted, never updated: skip the select that merge would issue
+    @Transient
+    private boolean newEntity = true;
+
+    public ProcessedEventEntity(String eventId) {
+        this.id = eventId;
+        this.processedAt = LocalDateTime.now();
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
+}
@@ -3,13 +3,16 @@ package com.example.orchestrator.entity;
 import com.example.common.entity.BaseEntity;
 import com.example.common.enums.ExecutionState;
 import com.example.common.messaging.model.BaseEvent;
-import com.example.orchestrator.converter.JsonNodeConverter;
+import com.example.orchestrator.converter.LazyJson;
+import com.example.orchestrator.converter.LazyJsonConverter;
 import com.example.orchestrator.dto.SagaDto;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.example.orchestrator.service.SagaInstanceCache;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
@@ -21,15 +24,22 @@ import java.util.Set;
 @Getter
 @NoArgsConstructor
 @Entity
-@Table(name = "saga_instance")
+@Table(name = "saga_instance",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_saga_instance_aggregate_id", columnNames = "aggregate_id"),
+                @UniqueConstraint(name = "uk_saga_instance_trigger_event_id", columnNames = "trigger_event_id")
+        }
+)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SagaInstanceCache.INSTANCES)
 public class SagaInstanceEntity extends BaseEntity {
 
     //The event id that starts saga
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String triggerEventId;
 
     //The originating business ID (e.g., orderId)
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String aggregateId;
 
     //Index of current step
@@ -42,9 +52,9 @@ public class SagaInstanceEntity extends BaseEntity {
     private ExecutionState status;
 
     //Context variables (e.g., orderId, paymentId, productId)
-    @Convert(converter = JsonNodeConverter.class)
-    @Column(columnDefinition = "CLOB", nullable = false)
-    private JsonNode contextData;
+    @Convert(converter = LazyJsonConverter.class)
+    @Column(columnDefinition = "JSON", nullable = false)
+    private LazyJson contextData;
 
     @Column
     private LocalDateTime expiresAt;
@@ -57,6 +67,7 @@ public class SagaInstanceEntity extends BaseEntity {
     private SagaEntity saga;
 
     @OneToMany(mappedBy = "instance", cascade = CascadeType.ALL)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SagaInstanceCache.INSTANCE_STEPS)
     private Set<SagaStepInstanceEntity> steps = new HashSet<>();
 
     public SagaInstanceEntity(SagaDto saga, BaseEvent event) {
@@ -64,7 +75,7 @@ public class SagaInstanceEntity extends BaseEntity {
         this.aggregateId = event.getAggregateId();
         this.currentStep = 0;
         this.status = ExecutionState.RUNNING;
-        this.contextData = event.getPayload();
+        this.contextData = LazyJson.of(event.getPayload());
         this.sagaId = saga.id();
         if (saga.expirationDuration() != null) {
             this.expiresAt = LocalDateTime.now().plus(saga.expirationDuration());
@@ -1,8 +1,8 @@
 package com.example.orchestrator.entity;
 
 import com.example.common.messaging.enums.EventType;
-import com.example.orchestrator.converter.JsonNodeConverter;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.example.orchestrator.converter.LazyJson;
+import com.example.orchestrator.converter.LazyJsonConverter;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -42,7 +42,7 @@ public class SagaStarterEventEntity {
     @Enumerated(EnumType.STRING)
     private EventType eventType;
 
-    @Convert(converter = JsonNodeConverter.class)
-    @Column(columnDefinition = "CLOB", nullable = false)
-    private JsonNode payload;
+    @Convert(converter = LazyJsonConverter.class)
+    @Column(columnDefinition = "JSON", nullable = false)
+    private LazyJson payload;
 }
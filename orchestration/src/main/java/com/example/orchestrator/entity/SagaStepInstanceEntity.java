@@ -4,29 +4,38 @@ import com.example.common.entity.BaseEntity;
 import com.example.common.enums.StepState;
 import com.example.common.messaging.enums.CommandType;
 import com.example.common.messaging.enums.EventType;
+import com.example.orchestrator.service.SagaInstanceCache;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
 
 //Defines a single command/event pair in the saga.
 @Setter
 @Getter
 @Entity
 @Table(name = "saga_step_instance",
-        uniqueConstraints = {@UniqueConstraint(columnNames = {"instance_id", "step_id"})}
+        uniqueConstraints = {@UniqueConstraint(name = "uk_saga_step_instance_instance_step",
+                columnNames = {"instance_id", "step_id"})}
 )
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SagaInstanceCache.STEPS)
 public class SagaStepInstanceEntity extends BaseEntity {
     //Command executed
     @Column(nullable = false)
     @Enumerated(EnumType.STRING)
     private CommandType commandType;
 
-    //Event received
+    //Event received (the expected one until the reply arrives)
     @Column(nullable = false)
     @Enumerated(EnumType.STRING)
     private EventType eventReceived;
 
-    //Step state
+    //Step state (IN_PROGRESS from dispatch to reply)
     @Column(nullable = false)
     @Enumerated(EnumType.STRING)
     private StepState status;
@@ -39,6 +48,14 @@ public class SagaStepInstanceEntity extends BaseEntity {
     @Column
     private String errorDetails;
 
+    //When the command of this step was dispatched (written to the outbox), i.e. when this row was created
+    @Column
+    private LocalDateTime dispatchedAt;
+
+    //When the reply of this step arrived
+    @Column
+    private LocalDateTime completedAt;
+
     @Column(nullable = false)
     private Integer stepOrder;
 
@@ -63,4 +80,11 @@ public class SagaStepInstanceEntity extends BaseEntity {
     public void incrementRetryCount() {
         retryCount++;
     }
+
+    public Duration getLatency() {
+        if (dispatchedAt == null || completedAt == null) {
+            return null;
+        }
+        return Duration.between(dispatchedAt, completedAt);
+    }
 }
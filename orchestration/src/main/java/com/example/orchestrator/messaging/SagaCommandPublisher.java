@@ -4,8 +4,11 @@ import com.example.common.messaging.CommandPublisher;
 import com.example.common.messaging.model.BaseCommand;
 import lombok.RequiredArgsConstructor;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+
 @Component
 @RequiredArgsConstructor
 public class SagaCommandPublisher implements CommandPublisher {
@@ -13,6 +16,10 @@ public class SagaCommandPublisher implements CommandPublisher {
 
     @Override
     public void publish(String topic, BaseCommand command) {
-        kafkaTemplate.send(topic, command);
+        send(topic, command);
+    }
+
+    public CompletableFuture<SendResult<String, BaseCommand>> send(String topic, BaseCommand command) {
+        return kafkaTemplate.send(topic, command.getAggregateId(), command);
     }
 }
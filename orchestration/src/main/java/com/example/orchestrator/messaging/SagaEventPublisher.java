@@ -16,7 +16,7 @@ public class SagaEventPublisher implements EventPublisher {
 
     @Override
     public void publish(String topic, BaseEvent event) {
-        kafkaTemplate.send(topic, event);
+        kafkaTemplate.send(topic, event.getAggregateId(), event);
     }
 
     public void publishSagaCompletedEvent(SagaExecuteResult result) {
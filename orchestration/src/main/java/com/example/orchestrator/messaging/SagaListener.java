@@ -3,58 +3,133 @@ package com.example.orchestrator.messaging;
 import com.example.common.messaging.model.BaseEvent;
 import com.example.common.statics.KafkaNames;
 import com.example.common.utils.Try;
-import com.example.orchestrator.dto.OutBox;
 import com.example.orchestrator.dto.SagaExecuteResult;
 import com.example.orchestrator.dto.SagaTimeoutEvent;
+import com.example.orchestrator.metrics.SagaMetrics;
+import com.example.orchestrator.scheduling.OutBoxRelay;
+import com.example.orchestrator.service.IdempotencyService;
 import com.example.orchestrator.service.SagaInstanceService;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.event.EventListener;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.retry.support.RetryTemplate;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.event.TransactionPhase;
 import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Component
 @RequiredArgsConstructor
 public class SagaListener {
     private static final Logger logger = LoggerFactory.getLogger(SagaListener.class);
     private final SagaInstanceService sagaInstanceService;
-    private final RetryTemplate retryTemplate;
-    private final SagaCommandPublisher commandPublisher;
+    private final IdempotencyService idempotencyService;
+    private final OutBoxRelay outBoxRelay;
     private final SagaStatusPublisher statusPublisher;
     private final SagaEventPublisher eventPublisher;
+    private final SagaMetrics metrics;
 
     @KafkaListener(topics = {KafkaNames.ORDER_EVENTS, KafkaNames.INVENTORY_EVENTS, KafkaNames.PAYMENT_EVENTS},
-            groupId = KafkaNames.ORCHESTRATOR_GROUP)
+            groupId = KafkaNames.ORCHESTRATOR_GROUP,
+            autoStartup = "#{!${saga.kafka.batch-listener.enabled:false}}")
     public void onEvent(BaseEvent event) {
-        //TODO: Add idempotency pattern with Redis + DB
         logger.info("Orchestrator service received {}", event);
-        if (event.getEventType().isCompensatoryEvent()) {
-            sagaInstanceService.onCompensatoryEvent(event);
-        } else if (event.isFailureEvent()) {
-            sagaInstanceService.onTimeoutOrFailure(event);
-        } else {
-            sagaInstanceService.run(event);
+        Timer.Sample sample = metrics.start();
+        String outcome = SagaMetrics.ERROR;
+        try {
+            if (idempotencyService.isDuplicate(event.getEventId())) {
+                logger.warn("Duplicate event {} dropped", event.getEventId());
+                outcome = SagaMetrics.DUPLICATE;
+                return;
+            }
+            if (event.getEventType().isCompensatoryEvent()) {
+                sagaInstanceService.onCompensatoryEvent(event);
+            } else if (event.isFailureEvent()) {
+                sagaInstanceService.onTimeoutOrFailure(event);
+            } else {
+                sagaInstanceService.run(event);
+            }
+            outcome = SagaMetrics.SUCCESS;
+        } finally {
+            metrics.stage(sample, "listener", event, null, outcome);
         }
     }
 
+    /**
+     * Opt-in batch mode: step replies of running sagas are applied in one transaction,
+     * everything else (start, failure, compensation) goes through {@link #onEvent(BaseEvent)}.
+     * A saga that has any non-step-reply event in the poll is handled record by record to keep its order.
+     */
+    @KafkaListener(topics = {KafkaNames.ORDER_EVENTS, KafkaNames.INVENTORY_EVENTS, KafkaNames.PAYMENT_EVENTS},
+            groupId = KafkaNames.ORCHESTRATOR_GROUP,
+            containerFactory = "batchKafkaListenerContainerFactory",
+            autoStartup = "${saga.kafka.batch-listener.enabled:false}")
+    public void onEvents(List<BaseEvent> events) {
+        logger.info("Orchestrator service received batch of {} events", events.size());
+        Set<String> duplicates = events.stream()
+                .map(BaseEvent::getEventId)
+                .filter(idempotencyService::isDuplicate)
+                .collect(Collectors.toSet());
+        Set<String> recordBySagas = events.stream()
+                .filter(event -> !isStepReply(event))
+                .map(BaseEvent::getSagaInstanceId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        List<BaseEvent> stepReplies = new ArrayList<>();
+        boolean[] batched = new boolean[events.size()];
+        for (int i = 0; i < events.size(); i++) {
+            BaseEvent event = events.get(i);
+            if (duplicates.contains(event.getEventId())) {
+                logger.warn("Duplicate event {} dropped", event.getEventId());
+                batched[i] = true;
+            } else if (isStepReply(event) && !recordBySagas.contains(event.getSagaInstanceId())) {
+                stepReplies.add(event);
+                batched[i] = true;
+            }
+        }
+
+        //On failure the whole batch transaction is rolled back and replayed record by record,
+        //so the failing saga goes through the usual retry/compensation path of the error handler
+        boolean batchApplied = stepReplies.isEmpty() || Try.run(() -> sagaInstanceService.runBatch(stepReplies))
+                .onFailure(ex -> logger.warn("Batch of {} step replies failed, falling back to per record: {}",
+                        stepReplies.size(), ex.getMessage()))
+                .isSuccess();
+
+        for (int i = 0; i < events.size(); i++) {
+            if (batched[i] && (batchApplied || duplicates.contains(events.get(i).getEventId()))) {
+                continue;
+            }
+            try {
+                onEvent(events.get(i));
+            } catch (Exception ex) {
+                throw new BatchListenerFailedException("Handling event failed", ex, i);
+            }
+        }
+    }
+
+    private static boolean isStepReply(BaseEvent event) {
+        return StringUtils.hasText(event.getSagaInstanceId()) && !event.isFailureEvent()
+                && !event.getEventType().isCompensatoryEvent();
+    }
+
     @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
     public void afterSagaCommit(SagaExecuteResult result) {
+        Timer.Sample sample = metrics.start();
+        metrics.status(result.triggeringEvent(), result.status());
         if (result.success()) {
-            OutBox outBox = result.outBox();
-            if (outBox != null) {
-                retryTemplate.execute(context -> {
-                    logger.warn("Retrying producer for {}", context.getRetryCount());
-                    commandPublisher.publish(outBox.topic(), outBox.command());
-                    return null;
-                }, context -> {
-                    logger.warn("Retry producer reached max limit {}", context.getRetryCount());
-                    sagaInstanceService.onProducerRetryExhausted(outBox.command(), outBox.triggerEvent());
-                    return null;
-                });
+            //Command is already stored in the outbox, just wake the relay up
+            if (result.outBox() != null) {
+                outBoxRelay.requestDrain();
             }
         } else {
             sagaInstanceService.moveToDeadLetter(result);
@@ -65,6 +140,8 @@ public class SagaListener {
 
         Try.run(() -> eventPublisher.publishSagaCompletedEvent(result))
                 .onFailure(ex -> logger.error("Publishing completed event failed: {}", ex.getMessage()));
+        metrics.stage(sample, "after_commit", result.triggeringEvent(), null,
+                result.success() ? SagaMetrics.SUCCESS : SagaMetrics.FAILURE);
     }
 
     @EventListener
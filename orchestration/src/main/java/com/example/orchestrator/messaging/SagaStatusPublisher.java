@@ -1,28 +1,168 @@
 package com.example.orchestrator.messaging;
 
+import com.example.common.messaging.model.SagaStatusFrame;
 import com.example.common.messaging.model.SagaStatusMessage;
+import com.example.common.statics.RedisChannelNames;
+import com.example.common.statics.SagaConstants;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Publishes the saga statuses every {@link SagaConstants#STATUS_FLUSH_INTERVAL_MS}, coalesced per aggregate
+ * (only the latest status of the window is sent) and batched in {@link SagaStatusFrame}s of up to
+ * {@link SagaConstants#STATUS_FRAME_SIZE} statuses per Redis publish. Every status goes to the bucket channel of
+ * its aggregate ({@link RedisChannelNames#orderStatus(String)}), which only the nodes watching it subscribe to.
+ * Before publishing, the status is stored as the versioned snapshot of its aggregate
+ * ({@link RedisChannelNames#orderStatusSnapshot(String)}), read by the clients that connect late.
+ */
 @Component
 public class SagaStatusPublisher {
     private static final Logger logger = LoggerFactory.getLogger(SagaStatusPublisher.class);
-    private final RedisTemplate<String, SagaStatusMessage> redisTemplate;
-    private final ChannelTopic topic;
+    //KEYS: snapshot hashes, ARGV: version field, status field, ttl, then the status of every key
+    private static final String SNAPSHOT_SCRIPT = """
+            local versions = {}
+            for i, key in ipairs(KEYS) do
+                versions[i] = redis.call('HINCRBY', key, ARGV[1], 1)
+                redis.call('HSET', key, ARGV[2], ARGV[i + 3])
+                redis.call('PEXPIRE', key, ARGV[3])
+            end
+            return versions
+            """;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    //Latest status of every aggregate changed since the last flush
+    private final Map<String, SagaStatusMessage> pending = new ConcurrentHashMap<>();
+    private final DefaultRedisScript<List> snapshotScript;
+    //Own thread, so the short interval is not delayed by the other scheduled tasks
+    private final ThreadPoolTaskScheduler flushScheduler = new ThreadPoolTaskScheduler();
+
+    private final Counter coalesced;
+    private final DistributionSummary frameSize;
 
-    public SagaStatusPublisher(
-            @Qualifier("statusRedisTemplate") RedisTemplate<String, SagaStatusMessage> redisTemplate,
-            ChannelTopic topic) {
+    public SagaStatusPublisher(StringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry) {
         this.redisTemplate = redisTemplate;
-        this.topic = topic;
+        this.objectMapper = objectMapper;
+        this.snapshotScript = new DefaultRedisScript<>();
+        this.snapshotScript.setScriptText(SNAPSHOT_SCRIPT);
+        this.snapshotScript.setResultType(List.class);
+        this.coalesced = meterRegistry.counter("saga.status.coalesced");
+        this.frameSize = meterRegistry.summary("saga.status.frame.size");
     }
 
     public void publish(SagaStatusMessage status) {
-        redisTemplate.convertAndSend(topic.getTopic(), status);
-        logger.info("Published to Redis: {}", status);
+        if (status == null) {
+            return;
+        }
+        if (pending.put(status.aggregateId(), status) != null) {
+            coalesced.increment();
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        flushScheduler.setPoolSize(1);
+        flushScheduler.setThreadNamePrefix("saga-status-");
+        flushScheduler.initialize();
+        flushScheduler.scheduleWithFixedDelay(this::flush, Duration.ofMillis(SagaConstants.STATUS_FLUSH_INTERVAL_MS));
+    }
+
+    @PreDestroy
+    public void stop() {
+        flushScheduler.shutdown();
+        flush();
+    }
+
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<String> aggregateIds = new ArrayList<>();
+        List<String> statuses = new ArrayList<>();
+        for (String aggregateId : pending.keySet()) {
+            SagaStatusMessage status = pending.remove(aggregateId);
+            if (status == null) {
+                continue;
+            }
+            try {
+                statuses.add(objectMapper.writeValueAsString(status));
+                aggregateIds.add(aggregateId);
+            } catch (JsonProcessingException e) {
+                logger.error("Could not write status of {}", aggregateId, e);
+            }
+        }
+        List<Object> versions = storeSnapshots(aggregateIds, statuses);
+
+        Map<String, Frame> frames = new HashMap<>();
+        for (int i = 0; i < aggregateIds.size(); i++) {
+            String aggregateId = aggregateIds.get(i);
+            String channel = RedisChannelNames.orderStatus(aggregateId);
+            Frame frame = frames.computeIfAbsent(channel, c -> new Frame());
+            long version = versions.get(i) instanceof Long value ? value : 0L;
+            SagaStatusFrame.append(frame.text, aggregateId, version, statuses.get(i));
+            if (++frame.size == SagaConstants.STATUS_FRAME_SIZE) {
+                send(channel, frames.remove(channel));
+            }
+        }
+        frames.forEach(this::send);
+    }
+
+    //One script call (EVALSHA) per STATUS_FRAME_SIZE snapshots, returns the new version of each
+    private List<Object> storeSnapshots(List<String> aggregateIds, List<String> statuses) {
+        List<Object> versions = new ArrayList<>(aggregateIds.size());
+        for (int from = 0; from < aggregateIds.size(); from += SagaConstants.STATUS_FRAME_SIZE) {
+            int to = Math.min(from + SagaConstants.STATUS_FRAME_SIZE, aggregateIds.size());
+            List<String> keys = new ArrayList<>(to - from);
+            List<String> args = new ArrayList<>(to - from + 3);
+            args.add(RedisChannelNames.SNAPSHOT_VERSION);
+            args.add(RedisChannelNames.SNAPSHOT_STATUS);
+            args.add(String.valueOf(SagaConstants.STATUS_SNAPSHOT_TTL_MS));
+            for (int i = from; i < to; i++) {
+                keys.add(RedisChannelNames.orderStatusSnapshot(aggregateIds.get(i)));
+                args.add(statuses.get(i));
+            }
+            try {
+                List<?> stored = redisTemplate.execute(snapshotScript, keys, args.toArray());
+                versions.addAll(stored != null && stored.size() == keys.size()
+                        ? stored : Collections.nCopies(keys.size(), null));
+            } catch (Exception e) {
+                logger.error("Storing {} status snapshots failed: {}", keys.size(), e.getMessage());
+                versions.addAll(Collections.nCopies(keys.size(), null));
+            }
+        }
+        return versions;
+    }
+
+    private void send(String channel, Frame frame) {
+        if (frame.size == 0) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(channel, frame.text.toString());
+            frameSize.record(frame.size);
+            logger.debug("Published {} statuses to {}", frame.size, channel);
+        } catch (Exception e) {
+            logger.error("Publishing {} statuses to {} failed: {}", frame.size, channel, e.getMessage());
+        }
+    }
+
+    private static final class Frame {
+        private final StringBuilder text = new StringBuilder();
+        private int size;
     }
 }
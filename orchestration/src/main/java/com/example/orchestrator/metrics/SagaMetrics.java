@@ -0,0 +1,70 @@
+package com.example.orchestrator.metrics;
+
+import com.example.common.messaging.model.BaseEvent;
+import com.example.common.messaging.model.SagaStatusMessage;
+import com.example.orchestrator.dto.SagaDefinition;
+import com.example.orchestrator.service.SagaDefinitionRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Meters of the saga stages. Every stage is a {@code saga.stage} timer tagged by
+ * {@code stage}, {@code saga} (name), {@code step} (order), {@code event} and {@code outcome};
+ * histograms are enabled in application.yml. Tag values are bounded by the saga definitions.
+ */
+@Component
+public class SagaMetrics {
+    public static final String SUCCESS = "success";
+    public static final String FAILURE = "failure";
+    public static final String ERROR = "error";
+    public static final String TIMEOUT = "timeout";
+    public static final String INIT_FAILED = "init_failed";
+    public static final String INVALID_TRANSITION = "invalid_transition";
+    public static final String DUPLICATE = "duplicate";
+    public static final String NONE = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final SagaDefinitionRegistry definitionRegistry;
+
+    public SagaMetrics(MeterRegistry meterRegistry, SagaDefinitionRegistry definitionRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.definitionRegistry = definitionRegistry;
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    public void stage(Timer.Sample sample, String stage, BaseEvent event, Integer step, String outcome) {
+        sample.stop(meterRegistry.timer("saga.stage", Tags.of(
+                "stage", stage,
+                "saga", sagaName(event),
+                "step", step != null ? step.toString() : NONE,
+                "event", event != null && event.getEventType() != null ? event.getEventType().name() : NONE,
+                "outcome", outcome)));
+    }
+
+    /**
+     * Counts the statuses published after commit, e.g. COMPLETED vs FAILED sagas.
+     */
+    public void status(BaseEvent triggeringEvent, SagaStatusMessage status) {
+        if (status == null || status.status() == null) {
+            return;
+        }
+        meterRegistry.counter("saga.status", "saga", sagaName(triggeringEvent),
+                "status", status.status().name()).increment();
+    }
+
+    private String sagaName(BaseEvent event) {
+        if (event == null || event.getEventType() == null) {
+            return NONE;
+        }
+        SagaDefinition saga = StringUtils.hasText(event.getSagaId())
+                ? definitionRegistry.getById(event.getSagaId())
+                : definitionRegistry.getByTrigger(event.getEventType());
+        return saga != null ? saga.name() : NONE;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.orchestrator.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+//GET /actuator/sagasteps: rolling dispatch-to-reply percentiles per saga step and outcome
+@Component
+@Endpoint(id = "sagasteps")
+@RequiredArgsConstructor
+public class SagaStepLatencyEndpoint {
+    private final StepLatencyTracker tracker;
+
+    @ReadOperation
+    public List<StepLatencyTracker.StepLatency> steps() {
+        return tracker.snapshot();
+    }
+}
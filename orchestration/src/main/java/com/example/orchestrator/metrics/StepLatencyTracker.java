@@ -0,0 +1,103 @@
+package com.example.orchestrator.metrics;
+
+import com.example.common.statics.SagaConstants;
+import com.example.orchestrator.dto.SagaStepDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dispatch-to-reply latency of every saga step, i.e. the time spent in the downstream service and Kafka.
+ * Samples are split by outcome: {@code success}, or for the step a saga failed on {@code failure} (failure reply),
+ * {@code timeout} (time waited until the saga timed out) and {@code error} (reply that could not be handled).
+ * Keeps the last {@link SagaConstants#STEP_LATENCY_WINDOW} samples per step for rolling percentiles
+ * ({@link SagaStepLatencyEndpoint}) and feeds the {@code saga.step.latency} timer.
+ */
+@Component
+public class StepLatencyTracker {
+
+    public record StepLatency(String saga, int stepOrder, String step, String command, String outcome, long count,
+                              double p50Ms, double p95Ms, double p99Ms, double maxMs) {
+    }
+
+    private record StepKey(String saga, int stepOrder, String step, String command, String outcome) {
+    }
+
+    //Ring buffer of the most recent samples
+    private static final class Window {
+        private final long[] samples = new long[SagaConstants.STEP_LATENCY_WINDOW];
+        private long count;
+
+        synchronized void add(long millis) {
+            samples[(int) (count++ % samples.length)] = millis;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(samples, (int) Math.min(count, samples.length));
+            Arrays.sort(copy);
+            return copy;
+        }
+
+        synchronized long count() {
+            return count;
+        }
+    }
+
+    private final Map<StepKey, Window> windows = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public StepLatencyTracker(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Records once the current transaction commits, so retried deliveries are not counted twice.
+     */
+    public void record(String saga, SagaStepDto step, Duration latency, String outcome) {
+        if (latency == null || latency.isNegative()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doRecord(saga, step, latency, outcome);
+                }
+            });
+        } else {
+            doRecord(saga, step, latency, outcome);
+        }
+    }
+
+    public List<StepLatency> snapshot() {
+        List<StepLatency> result = new ArrayList<>();
+        windows.forEach((key, window) -> {
+            long[] sorted = window.sorted();
+            if (sorted.length > 0) {
+                result.add(new StepLatency(key.saga(), key.stepOrder(), key.step(), key.command(), key.outcome(),
+                        window.count(), percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99),
+                        sorted[sorted.length - 1]));
+            }
+        });
+        result.sort(Comparator.comparing(StepLatency::saga).thenComparingInt(StepLatency::stepOrder)
+                .thenComparing(StepLatency::outcome));
+        return result;
+    }
+
+    private void doRecord(String saga, SagaStepDto step, Duration latency, String outcome) {
+        StepKey key = new StepKey(saga, step.stepOrder(), step.name(), step.commandType().name(), outcome);
+        windows.computeIfAbsent(key, k -> new Window()).add(latency.toMillis());
+        meterRegistry.timer("saga.step.latency", "saga", saga, "step", step.name(),
+                "command", key.command(), "outcome", outcome).record(latency);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(index, 0)];
+    }
+}
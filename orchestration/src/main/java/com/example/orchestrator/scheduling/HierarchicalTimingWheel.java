@@ -0,0 +1,177 @@
+package com.example.orchestrator.scheduling;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashed hierarchical timing wheel keyed by id, with O(1) add and cancel.
+ * Level {@code k} has {@code wheelSize} buckets of {@code tickMs * wheelSize^k} each, entries are cascaded
+ * down a level when their bucket comes up. Deadlines beyond the top level are parked in it and re-cascaded.
+ * Not driven by itself: the owner calls {@link #advance(long)} at least every tick.
+ */
+public class HierarchicalTimingWheel {
+
+    public record Expired(String id, long deadline) {
+    }
+
+    private static final class Entry {
+        private final String id;
+        private final long deadline;
+        private final long deadlineTick;
+        private Entry prev;
+        private Entry next;
+        private Bucket bucket;
+
+        private Entry(String id, long deadline, long deadlineTick) {
+            this.id = id;
+            this.deadline = deadline;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    //Intrusive doubly linked list, so an entry unlinks itself without a scan
+    private static final class Bucket {
+        private Entry head;
+
+        private void add(Entry entry) {
+            entry.bucket = this;
+            entry.next = head;
+            if (head != null) {
+                head.prev = entry;
+            }
+            head = entry;
+        }
+
+        private void remove(Entry entry) {
+            if (entry.prev != null) {
+                entry.prev.next = entry.next;
+            } else {
+                head = entry.next;
+            }
+            if (entry.next != null) {
+                entry.next.prev = entry.prev;
+            }
+            entry.prev = entry.next = null;
+            entry.bucket = null;
+        }
+
+        private Entry drain() {
+            Entry first = head;
+            head = null;
+            return first;
+        }
+    }
+
+    private final long tickMs;
+    private final int bits;
+    private final int mask;
+    private final int levels;
+    private final Bucket[][] wheels;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private long currentTick;
+
+    /**
+     * @param wheelSize buckets per level, rounded up to a power of two
+     */
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, int levels, long startMs) {
+        this.tickMs = tickMs;
+        this.bits = 32 - Integer.numberOfLeadingZeros(Math.max(wheelSize, 2) - 1);
+        this.mask = (1 << bits) - 1;
+        this.levels = levels;
+        this.wheels = new Bucket[levels][1 << bits];
+        for (Bucket[] wheel : wheels) {
+            for (int i = 0; i < wheel.length; i++) {
+                wheel[i] = new Bucket();
+            }
+        }
+        this.currentTick = startMs / tickMs;
+    }
+
+    /**
+     * Add or replace the timeout of {@code id}. A deadline already due fires on the next tick.
+     */
+    public synchronized void add(String id, long deadline) {
+        cancel(id);
+        long deadlineTick = Math.max((deadline + tickMs - 1) / tickMs, currentTick + 1);
+        Entry entry = new Entry(id, deadline, deadlineTick);
+        entries.put(id, entry);
+        place(entry);
+    }
+
+    /**
+     * @return false if {@code id} is not (or no longer) in the wheel
+     */
+    public synchronized boolean cancel(String id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return false;
+        }
+        entry.bucket.remove(entry);
+        return true;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Move the wheel up to {@code nowMs} and remove the entries that came due.
+     */
+    public synchronized List<Expired> advance(long nowMs) {
+        List<Expired> expired = new ArrayList<>();
+        long targetTick = nowMs / tickMs;
+        while (currentTick < targetTick) {
+            currentTick++;
+            for (int level = levels - 1; level >= 1; level--) {
+                if ((currentTick & ((1L << (bits * level)) - 1)) == 0) {
+                    cascade(wheels[level][(int) ((currentTick >>> (bits * level)) & mask)]);
+                }
+            }
+            for (Entry entry = wheels[0][(int) (currentTick & mask)].drain(); entry != null; ) {
+                Entry next = entry.next;
+                entries.remove(entry.id);
+                expired.add(new Expired(entry.id, entry.deadline));
+                entry = next;
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Remove everything, used to hand pending timeouts over on shutdown.
+     */
+    public synchronized List<Expired> drainAll() {
+        List<Expired> all = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            entry.bucket.remove(entry);
+            all.add(new Expired(entry.id, entry.deadline));
+        }
+        entries.clear();
+        return all;
+    }
+
+    private void cascade(Bucket bucket) {
+        for (Entry entry = bucket.drain(); entry != null; ) {
+            Entry next = entry.next;
+            entry.prev = entry.next = null;
+            place(entry);
+            entry = next;
+        }
+    }
+
+    private void place(Entry entry) {
+        long delta = entry.deadlineTick - currentTick;
+        for (int level = 0; level < levels; level++) {
+            if (delta < (1L << (bits * (level + 1)))) {
+                wheels[level][(int) ((entry.deadlineTick >>> (bits * level)) & mask)].add(entry);
+                return;
+            }
+        }
+        //Beyond the top level: park in the furthest top bucket, placed again when it is cascaded
+        int top = levels - 1;
+        long parkTick = currentTick + (1L << (bits * levels)) - 1;
+        wheels[top][(int) ((parkTick >>> (bits * top)) & mask)].add(entry);
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.orchestrator.scheduling;
+
+import com.example.common.messaging.model.BaseCommand;
+import com.example.common.statics.SagaConstants;
+import com.example.common.utils.Try;
+import com.example.orchestrator.dao.OutBoxDao;
+import com.example.orchestrator.entity.OutBoxEntity;
+import com.example.orchestrator.messaging.SagaCommandPublisher;
+import com.example.orchestrator.service.SagaInstanceService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains the {@code saga_outbox} table to Kafka in batches.
+ * A batch is claimed (leased until {@link SagaConstants#OUTBOX_SEND_LEASE_MS}) in a short transaction and sent
+ * once it is committed, so no transaction or row lock is held while the broker acknowledges. The send callbacks
+ * only queue their outcome and wake the relay thread up, which deletes the sent rows and releases the failed
+ * ones for a retry. A row whose outcome never comes back (crashed node) is claimed again when its lease expires.
+ */
+@Component
+public class OutBoxRelay {
+    private static final Logger logger = LoggerFactory.getLogger(OutBoxRelay.class);
+
+    private final OutBoxDao dao;
+    private final SagaCommandPublisher commandPublisher;
+    private final SagaInstanceService sagaInstanceService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final TaskExecutor relayExecutor;
+    private final MeterRegistry meterRegistry;
+    //Outcomes of the sends, applied by the relay thread
+    private final Queue<SendOutcome> outcomes = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Counter exhaustedCounter;
+    private final Timer batchTimer;
+    private final DistributionSummary batchSize;
+
+    public OutBoxRelay(OutBoxDao dao, SagaCommandPublisher commandPublisher,
+                       SagaInstanceService sagaInstanceService, TransactionTemplate transactionTemplate,
+                       ObjectMapper objectMapper, @Qualifier("outBoxRelayExecutor") TaskExecutor relayExecutor,
+                       MeterRegistry meterRegistry) {
+        this.dao = dao;
+        this.commandPublisher = commandPublisher;
+        this.sagaInstanceService = sagaInstanceService;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.relayExecutor = relayExecutor;
+        this.meterRegistry = meterRegistry;
+
+        this.sentCounter = meterRegistry.counter("saga.outbox.relay.sent");
+        this.failedCounter = meterRegistry.counter("saga.outbox.relay.failed");
+        this.exhaustedCounter = meterRegistry.counter("saga.outbox.relay.exhausted");
+        this.batchTimer = meterRegistry.timer("saga.outbox.relay.batch");
+        this.batchSize = meterRegistry.summary("saga.outbox.relay.batch.size");
+        //Backlog of unsent commands, queried on scrape only
+        Gauge.builder("saga.outbox.pending", dao, OutBoxDao::count).register(meterRegistry);
+        Gauge.builder("saga.outbox.relay.in-flight", inFlight, AtomicInteger::get).register(meterRegistry);
+    }
+
+    /**
+     * Ask the relay thread to drain as soon as possible. Concurrent requests are coalesced.
+     */
+    public void requestDrain() {
+        relayExecutor.execute(this::drain);
+    }
+
+    /**
+     * Fallback for commands left behind by a crash or a failed send.
+     */
+    @Scheduled(fixedDelay = SagaConstants.OUTBOX_POLL_INTERVAL_MS)
+    public void pollOutBox() {
+        requestDrain();
+    }
+
+    private void drain() {
+        try {
+            applyOutcomes();
+            int claimed;
+            do {
+                claimed = relayBatch();
+            } while (claimed == SagaConstants.OUTBOX_BATCH_SIZE);
+        } catch (Exception e) {
+            logger.error("Error while relaying outbox", e);
+        }
+    }
+
+    private int relayBatch() {
+        List<OutBoxEntity> batch = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutBoxEntity> due = dao.findDue(now, PageRequest.of(0, SagaConstants.OUTBOX_BATCH_SIZE));
+            LocalDateTime leaseUntil = now.plus(SagaConstants.OUTBOX_SEND_LEASE_MS, ChronoUnit.MILLIS);
+            due.forEach(entity -> entity.setLeaseUntil(leaseUntil));
+            return due;
+        });
+
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+        batchTimer.record(() -> send(batch));
+        return batch.size();
+    }
+
+    private void send(List<OutBoxEntity> batch) {
+        batchSize.record(batch.size());
+        for (OutBoxEntity entity : batch) {
+            BaseCommand command = readCommand(entity);
+            if (command == null) {
+                outcomes.add(new SendOutcome(entity.getId(), "Unreadable command"));
+                continue;
+            }
+            inFlight.incrementAndGet();
+            CompletableFuture<?> future;
+            try {
+                future = commandPublisher.send(entity.getTopic(), command);
+            } catch (Exception e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            timeAttempt(entity, future).whenComplete((result, ex) -> {
+                inFlight.decrementAndGet();
+                if (ex != null) {
+                    logger.warn("Sending command {} to {} failed: {}", entity.getId(), entity.getTopic(),
+                            ex.getMessage());
+                }
+                outcomes.add(new SendOutcome(entity.getId(), ex == null ? null : "Send failed"));
+                requestDrain();
+            });
+        }
+    }
+
+    /**
+     * Delete the sent rows; release the failed ones for a retry after {@link SagaConstants#RETRY_INTERVAL}, or
+     * fail their saga once they reached {@link SagaConstants#RETRY_THRESHOLD} attempts.
+     */
+    private void applyOutcomes() {
+        List<String> sent = new ArrayList<>();
+        Map<String, String> failed = new HashMap<>();
+        for (SendOutcome outcome; (outcome = outcomes.poll()) != null; ) {
+            if (outcome.error() == null) {
+                sent.add(outcome.id());
+            } else {
+                failed.put(outcome.id(), outcome.error());
+            }
+        }
+        if (sent.isEmpty() && failed.isEmpty()) {
+            return;
+        }
+
+        List<OutBoxEntity> exhausted = transactionTemplate.execute(status -> {
+            if (!sent.isEmpty()) {
+                dao.deleteAllByIdInBatch(sent);
+                sentCounter.increment(sent.size());
+            }
+            List<OutBoxEntity> gaveUp = new ArrayList<>();
+            LocalDateTime retryAt = LocalDateTime.now().plus(SagaConstants.RETRY_INTERVAL, ChronoUnit.MILLIS);
+            for (OutBoxEntity entity : dao.findAllById(failed.keySet())) {
+                failedCounter.increment();
+                entity.incrementAttempts();
+                entity.setLastError(failed.get(entity.getId()));
+                logger.warn("Relaying command {} to {} failed, attempt {}", entity.getId(), entity.getTopic(),
+                        entity.getAttempts());
+                if (entity.getAttempts() >= SagaConstants.RETRY_THRESHOLD) {
+                    exhaustedCounter.increment();
+                    gaveUp.add(entity);
+                } else {
+                    entity.setLeaseUntil(retryAt);
+                }
+            }
+            dao.deleteAllInBatch(gaveUp);
+            return gaveUp;
+        });
+
+        for (OutBoxEntity entity : exhausted == null ? List.<OutBoxEntity>of() : exhausted) {
+            BaseCommand command = readCommand(entity);
+            if (command != null) {
+                Try.run(() -> sagaInstanceService.onProducerRetryExhausted(command, entity.getTriggerEvent()))
+                        .onFailure(ex -> logger.error("Handling exhausted command {} failed", entity.getId(), ex));
+            }
+        }
+    }
+
+    //Send-to-ack time of each publish attempt, tagged by topic, attempt number and outcome
+    private CompletableFuture<?> timeAttempt(OutBoxEntity entity, CompletableFuture<?> future) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String attempt = String.valueOf(entity.getAttempts() + 1);
+        return future.whenComplete((result, ex) -> sample.stop(meterRegistry.timer("saga.outbox.relay.send",
+                "topic", entity.getTopic(), "attempt", attempt, "outcome", ex == null ? "success" : "failure")));
+    }
+
+    private BaseCommand readCommand(OutBoxEntity entity) {
+        try {
+            return objectMapper.readValue(entity.getCommand(), BaseCommand.class);
+        } catch (Exception e) {
+            logger.error("Could not read outbox command {}", entity.getId(), e);
+            return null;
+        }
+    }
+
+    //error is null when the broker acknowledged the command
+    private record SendOutcome(String id, String error) {
+    }
+}
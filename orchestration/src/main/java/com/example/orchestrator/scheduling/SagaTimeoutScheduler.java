@@ -1,56 +1,230 @@
 package com.example.orchestrator.scheduling;
 
 import com.example.common.statics.SagaConstants;
+import com.example.orchestrator.dto.PendingTimeout;
+import jakarta.annotation.PostConstruct;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.util.Collections;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
+/**
+ * Timeouts due within {@code saga.timeout.checkpoint-window-ms} live only in an in-process timing wheel,
+ * so a saga that completes in time never touches Redis. Timeouts still pending when the window elapses
+ * (or on shutdown) are checkpointed into the sharded Redis sorted sets and fired by the shard owner.
+ * The timeouts a crashed node only held in its wheel are re-armed from the database by the node that acquires
+ * their shard, once every live node had the time to checkpoint its own ({@link #registerRecoveryCallback}).
+ * <p>
+ * Expired ids are claimed into a per shard in-flight set scored by lease expiry and acknowledged once the
+ * timeout handler returned; leases that expire (crashed node, failed handler) are put back by {@link #reapExpiredLeases()}.
+ */
 @Component
 public class SagaTimeoutScheduler {
     private static final Logger logger = LoggerFactory.getLogger(SagaTimeoutScheduler.class);
-    private static final String TIMEOUT_KEY = "timeout:events";
+    //Unsharded key of previous versions, drained by the owner of shard 0
+    private static final String LEGACY_TIMEOUT_KEY = "timeout:events";
+    private static final String TIMEOUT_KEY = "timeout:events:";
+    private static final String INFLIGHT_KEY = "timeout:inflight:";
+    private static final long MIN_POLL_DELAY_MS = 10;
+    private static final long WHEEL_TICK_MS = 10;
+    private static final int WHEEL_SIZE = 64;
+    private static final int WHEEL_LEVELS = 3;
 
-    //TODO: Move data to another z_set instead of immediate deletion
-    private static final String LUA_SCRIPT = """
+    //Moves the expired ids to the in-flight set with a lease, returns the next due score (or '') followed by the ids
+    private static final String CLAIM_SCRIPT = """
             local key = KEYS[1]
+            local inflight = KEYS[2]
             local now = tonumber(ARGV[1])
             local limit = tonumber(ARGV[2])
+            local leaseUntil = ARGV[3]
             local expired = redis.call('ZRANGEBYSCORE', key, '-inf', now, 'LIMIT', 0, limit)
             if #expired > 0 then
                 redis.call('ZREM', key, unpack(expired))
+                local leases = {}
+                for _, id in ipairs(expired) do
+                    table.insert(leases, leaseUntil)
+                    table.insert(leases, id)
+                end
+                redis.call('ZADD', inflight, unpack(leases))
             end
-            return expired
+            local head = redis.call('ZRANGE', key, 0, 0, 'WITHSCORES')
+            local result = {head[2] or ''}
+            for _, id in ipairs(expired) do
+                table.insert(result, id)
+            end
+            return result
+            """;
+
+    //Puts ids whose lease expired back as due now, returns how many
+    private static final String REQUEUE_SCRIPT = """
+            local inflight = KEYS[1]
+            local key = KEYS[2]
+            local now = ARGV[1]
+            local expired = redis.call('ZRANGEBYSCORE', inflight, '-inf', now, 'LIMIT', 0, tonumber(ARGV[2]))
+            if #expired == 0 then
+                return 0
+            end
+            redis.call('ZREM', inflight, unpack(expired))
+            local due = {}
+            for _, id in ipairs(expired) do
+                table.insert(due, now)
+                table.insert(due, id)
+            end
+            redis.call('ZADD', key, unpack(due))
+            return #expired
+            """;
+
+    //Adds the (score, id) pairs that are neither pending nor in flight, returns how many
+    private static final String REARM_SCRIPT = """
+            local key = KEYS[1]
+            local inflight = KEYS[2]
+            local added = 0
+            for i = 1, #ARGV, 2 do
+                local id = ARGV[i + 1]
+                if not redis.call('ZSCORE', key, id) and not redis.call('ZSCORE', inflight, id) then
+                    redis.call('ZADD', key, ARGV[i], id)
+                    added = added + 1
+                end
+            end
+            return added
             """;
 
     private final RedisTemplate<String, String> redisTemplate;
-    private final DefaultRedisScript<List> luaScript;
+    private final TimeoutShardManager shardManager;
+    private final DefaultRedisScript<List> claimScript;
+    private final DefaultRedisScript<Long> requeueScript;
+    private final DefaultRedisScript<Long> rearmScript;
+    private final ThreadPoolTaskScheduler pollScheduler = new ThreadPoolTaskScheduler();
+    private final long checkpointWindowMs;
+    private final HierarchicalTimingWheel wheel;
+    //Real deadline of the timeouts held by the wheel; removed by whoever (fire, spill or cancel) gets there first
+    private final Map<String, Long> localDeadlines = new ConcurrentHashMap<>();
     private Consumer<String> callback;
+    private BiConsumer<Set<Integer>, LocalDateTime> recoveryCallback;
+
+    private final MeterRegistry meterRegistry;
+    private final Timer claimTimer;
+    private final Counter firedLocalCounter;
+    private final Counter firedRedisCounter;
+    private final Counter ackedCounter;
+    private final Counter requeuedCounter;
+    private final Counter rearmedCounter;
+    private final AtomicLong inflightDepth = new AtomicLong();
 
-    public SagaTimeoutScheduler(RedisTemplate<String, String> redisTemplate) {
+    private volatile boolean running = true;
+    private ScheduledFuture<?> nextPoll;
+    private long nextPollAt;
+
+    public SagaTimeoutScheduler(RedisTemplate<String, String> redisTemplate, TimeoutShardManager shardManager,
+                                @Value("${saga.timeout.checkpoint-window-ms:10000}") long checkpointWindowMs,
+                                MeterRegistry meterRegistry) {
         this.redisTemplate = redisTemplate;
+        this.shardManager = shardManager;
+        this.checkpointWindowMs = checkpointWindowMs;
+        this.wheel = new HierarchicalTimingWheel(WHEEL_TICK_MS, WHEEL_SIZE, WHEEL_LEVELS, System.currentTimeMillis());
+
+        this.claimScript = new DefaultRedisScript<>();
+        this.claimScript.setScriptText(CLAIM_SCRIPT);
+        this.claimScript.setResultType(List.class);
+        this.requeueScript = new DefaultRedisScript<>(REQUEUE_SCRIPT, Long.class);
+        this.rearmScript = new DefaultRedisScript<>(REARM_SCRIPT, Long.class);
+
+        this.meterRegistry = meterRegistry;
+        this.claimTimer = meterRegistry.timer("saga.timeout.claim");
+        this.firedLocalCounter = meterRegistry.counter("saga.timeout.fired", "source", "local");
+        this.firedRedisCounter = meterRegistry.counter("saga.timeout.fired", "source", "redis");
+        this.ackedCounter = meterRegistry.counter("saga.timeout.acked");
+        this.requeuedCounter = meterRegistry.counter("saga.timeout.requeued");
+        this.rearmedCounter = meterRegistry.counter("saga.timeout.rearmed");
+        meterRegistry.gauge("saga.timeout.inflight", inflightDepth);
+        Gauge.builder("saga.timeout.wheel.size", wheel, HierarchicalTimingWheel::size).register(meterRegistry);
+        shardManager.onShardsAcquired(this::shardsAcquired);
+    }
+
+    @PostConstruct
+    public void start() {
+        pollScheduler.setPoolSize(2);
+        pollScheduler.setThreadNamePrefix("saga-timeout-");
+        pollScheduler.initialize();
+        pollScheduler.scheduleAtFixedRate(this::advanceWheel, Duration.ofMillis(WHEEL_TICK_MS));
+        schedulePoll(System.currentTimeMillis());
+    }
 
-        this.luaScript = new DefaultRedisScript<>();
-        this.luaScript.setScriptText(LUA_SCRIPT);
-        this.luaScript.setResultType(List.class);
+    @PreDestroy
+    public void stop() {
+        running = false;
+        pollScheduler.shutdown();
+        //Hand pending local timeouts over to whichever node owns their shard
+        spill(wheel.drainAll().stream().map(HierarchicalTimingWheel.Expired::id).toList());
     }
 
     public void registerTimeoutCallback(Consumer<String> callback) {
         this.callback = callback;
     }
 
+    /**
+     * Called with acquired shards and a creation time: the callback re-arms ({@link #rearm}) the pending timeouts
+     * of the instances created before it.
+     */
+    public void registerRecoveryCallback(BiConsumer<Set<Integer>, LocalDateTime> recoveryCallback) {
+        this.recoveryCallback = recoveryCallback;
+    }
+
+    /**
+     * Puts the given timeouts of the shards (still owned) into Redis, unless they are pending, in flight or in
+     * this node's wheel.
+     */
+    public void rearm(Set<Integer> shards, Collection<PendingTimeout> timeouts) {
+        Map<Integer, List<String>> byShard = new HashMap<>();
+        Set<Integer> owned = shardManager.getOwnedShards();
+        for (PendingTimeout timeout : timeouts) {
+            int shard = shardManager.shardOf(timeout.eventId());
+            if (!shards.contains(shard) || !owned.contains(shard) || localDeadlines.containsKey(timeout.eventId())) {
+                continue;
+            }
+            long expireAtMillis = timeout.expiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            List<String> args = byShard.computeIfAbsent(shard, s -> new ArrayList<>());
+            args.add(String.valueOf(expireAtMillis));
+            args.add(timeout.eventId());
+        }
+
+        long rearmed = 0;
+        for (Map.Entry<Integer, List<String>> entry : byShard.entrySet()) {
+            Long added = redisTemplate.execute(rearmScript,
+                    List.of(shardKey(entry.getKey()), INFLIGHT_KEY + entry.getKey()), entry.getValue().toArray());
+            rearmed += added == null ? 0 : added;
+        }
+        if (rearmed > 0) {
+            logger.warn("Re-armed {} timeouts lost by a node", rearmed);
+            rearmedCounter.increment(rearmed);
+            schedulePoll(System.currentTimeMillis());
+        }
+    }
+
     /**
      * Schedule a new timeout.
      */
@@ -63,51 +237,276 @@ public class SagaTimeoutScheduler {
             );
         }
 
-        long expireAtMillis = Instant.now().toEpochMilli() + delayMillis;
-        ZSetOperations<String, String> zset = redisTemplate.opsForZSet();
-        zset.add(TIMEOUT_KEY, eventId, expireAtMillis);
+        long now = Instant.now().toEpochMilli();
+        long expireAtMillis = now + delayMillis;
+        if (checkpointWindowMs <= 0) {
+            addToRedis(eventId, expireAtMillis);
+            return;
+        }
+
+        localDeadlines.put(eventId, expireAtMillis);
+        wheel.add(eventId, Math.min(expireAtMillis, now + checkpointWindowMs));
     }
 
     /**
      * Cancel timeout if result arrives.
      */
     public void cancelTimeout(String eventId) {
-        redisTemplate.opsForZSet().remove(TIMEOUT_KEY, eventId);
+        localDeadlines.remove(eventId);
+        if (!wheel.cancel(eventId)) {
+            ZSetOperations<String, String> zset = redisTemplate.opsForZSet();
+            zset.remove(shardKey(shardManager.shardOf(eventId)), eventId);
+            //Scheduled before the keys were sharded, still fired by the owner of shard 0
+            zset.remove(LEGACY_TIMEOUT_KEY, eventId);
+        }
     }
 
     /**
-     * Periodically poll for expired events
+     * Drain expired events of the owned shards.
+     * Polls again right away while there is backlog, otherwise sleeps until the earliest due timeout
+     * (at most {@link SagaConstants#TIMEOUT_POLL_INTERVAL_MS}, to pick up timeouts added by other nodes).
      */
-    @Scheduled(fixedDelay = SagaConstants.TIMEOUT_POLL_INTERVAL_MS)
     public void pollExpiredTimeouts() {
+        pollStarted();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        long now = Instant.now().toEpochMilli();
+        long nextAt = now + SagaConstants.TIMEOUT_POLL_INTERVAL_MS;
         try {
-            long now = Instant.now().toEpochMilli();
-            List<String> expiredIds = redisTemplate.execute(
-                    luaScript,
-                    Collections.singletonList(TIMEOUT_KEY),
-                    String.valueOf(now),
-                    String.valueOf(SagaConstants.TIMEOUT_POLL_BATCH_SIZE)
-            );
+            String leaseUntil = String.valueOf(now + SagaConstants.TIMEOUT_CLAIM_LEASE_MS);
+            for (Map.Entry<String, String> keys : ownedKeys().entrySet()) {
+                long claimStart = System.nanoTime();
+                List<String> result = redisTemplate.execute(
+                        claimScript,
+                        List.of(keys.getKey(), keys.getValue()),
+                        String.valueOf(now),
+                        String.valueOf(SagaConstants.TIMEOUT_POLL_BATCH_SIZE),
+                        leaseUntil
+                );
+                claimTimer.record(System.nanoTime() - claimStart, TimeUnit.NANOSECONDS);
+                if (result == null || result.isEmpty()) {
+                    continue;
+                }
 
-            if (expiredIds != null && !expiredIds.isEmpty()) {
+                List<String> expiredIds = result.subList(1, result.size());
+                List<String> handled = new ArrayList<>(expiredIds.size());
+                firedRedisCounter.increment(expiredIds.size());
                 for (String eventId : expiredIds) {
-                    handleTimeout(eventId);
+                    if (handleTimeout(eventId)) {
+                        handled.add(eventId);
+                    }
+                }
+                acknowledge(keys.getValue(), handled);
+
+                if (expiredIds.size() >= SagaConstants.TIMEOUT_POLL_BATCH_SIZE) {
+                    nextAt = now;
+                } else if (StringUtils.hasText(result.get(0))) {
+                    nextAt = Math.min(nextAt, (long) Double.parseDouble(result.get(0)));
                 }
             }
+            outcome = nextAt == now ? "backlog" : "success";
         } catch (Exception e) {
             logger.error("Error while polling expired timeouts", e);
+        } finally {
+            sample.stop(meterRegistry.timer("saga.timeout.poll", "outcome", outcome));
+            schedulePoll(nextAt);
+        }
+    }
+
+    /**
+     * Put back claimed timeouts whose lease expired and refresh the in-flight depth.
+     */
+    @Scheduled(fixedDelay = SagaConstants.TIMEOUT_CLAIM_LEASE_MS / 3)
+    public void reapExpiredLeases() {
+        try {
+            String now = String.valueOf(Instant.now().toEpochMilli());
+            Map<String, String> owned = ownedKeys();
+            long requeued = 0;
+            for (Map.Entry<String, String> keys : owned.entrySet()) {
+                Long count = redisTemplate.execute(requeueScript, List.of(keys.getValue(), keys.getKey()),
+                        now, String.valueOf(SagaConstants.TIMEOUT_POLL_BATCH_SIZE));
+                requeued += count == null ? 0 : count;
+            }
+
+            long depth = 0;
+            for (String inflightKey : new HashSet<>(owned.values())) {
+                Long size = redisTemplate.opsForZSet().zCard(inflightKey);
+                depth += size == null ? 0 : size;
+            }
+            inflightDepth.set(depth);
+
+            if (requeued > 0) {
+                logger.warn("Requeued {} timeouts with expired lease", requeued);
+                requeuedCounter.increment(requeued);
+                schedulePoll(System.currentTimeMillis());
+            }
+        } catch (Exception e) {
+            logger.error("Error while reaping expired timeout leases", e);
         }
     }
 
     /**
      * What happens when a timeout occurs.
+     *
+     * @return false if the callback failed, the timeout is then handled again once its lease expires
      */
-    private void handleTimeout(String eventId) {
-        if (callback != null) {
+    private boolean handleTimeout(String eventId) {
+        if (callback == null) {
+            return false;
+        }
+        try {
             callback.accept(eventId);
+            return true;
+        } catch (Exception e) {
+            logger.error("Timeout handling failed for event {}", eventId, e);
+            return false;
         }
     }
 
+    private void acknowledge(String inflightKey, List<String> eventIds) {
+        if (eventIds.isEmpty()) {
+            return;
+        }
+        redisTemplate.opsForZSet().remove(inflightKey, eventIds.toArray());
+        ackedCounter.increment(eventIds.size());
+    }
+
+    /**
+     * Fire the local timeouts that are due and checkpoint the ones that outlived the window.
+     */
+    private void advanceWheel() {
+        try {
+            long now = System.currentTimeMillis();
+            List<String> toSpill = new ArrayList<>();
+            for (HierarchicalTimingWheel.Expired expired : wheel.advance(now)) {
+                Long deadline = localDeadlines.get(expired.id());
+                if (deadline == null) {
+                    continue;
+                }
+                if (deadline <= expired.deadline()) {
+                    if (localDeadlines.remove(expired.id()) == null) {
+                        continue;
+                    }
+                    firedLocalCounter.increment();
+                    if (!handleTimeout(expired.id())) {
+                        //Retry through Redis like a claimed timeout whose handler failed
+                        addToRedis(expired.id(), now + SagaConstants.RETRY_INTERVAL);
+                    }
+                } else {
+                    toSpill.add(expired.id());
+                }
+            }
+            spill(toSpill);
+        } catch (Exception e) {
+            logger.error("Error while advancing the timeout wheel", e);
+        }
+    }
+
+    private void spill(List<String> eventIds) {
+        if (eventIds.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, Set<TypedTuple<String>>> byShard = new HashMap<>();
+        for (String eventId : eventIds) {
+            Long deadline = localDeadlines.get(eventId);
+            if (deadline != null) {
+                byShard.computeIfAbsent(shardManager.shardOf(eventId), shard -> new HashSet<>())
+                        .add(TypedTuple.of(eventId, deadline.doubleValue()));
+            }
+        }
+
+        ZSetOperations<String, String> zset = redisTemplate.opsForZSet();
+        byShard.forEach((shard, tuples) -> {
+            try {
+                zset.add(shardKey(shard), tuples);
+            } catch (Exception e) {
+                //Keep them local and retry on the next window
+                logger.error("Error while checkpointing {} timeouts of shard {}", tuples.size(), shard, e);
+                long retryAt = System.currentTimeMillis() + checkpointWindowMs;
+                tuples.forEach(tuple -> wheel.add(tuple.getValue(), retryAt));
+                return;
+            }
+
+            for (TypedTuple<String> tuple : tuples) {
+                //Cancelled while being written: undo
+                if (localDeadlines.remove(tuple.getValue()) == null) {
+                    zset.remove(shardKey(shard), tuple.getValue());
+                } else if (shardManager.getOwnedShards().contains(shard)) {
+                    schedulePoll(tuple.getScore().longValue());
+                }
+            }
+        });
+    }
+
+    private void addToRedis(String eventId, long expireAtMillis) {
+        int shard = shardManager.shardOf(eventId);
+        redisTemplate.opsForZSet().add(shardKey(shard), eventId, expireAtMillis);
+
+        if (shardManager.getOwnedShards().contains(shard)) {
+            schedulePoll(expireAtMillis);
+        }
+    }
+
+    //Wait until the previous owner of the shards checkpointed (window) and fired (window) its local timeouts:
+    //whatever is created before now and is still neither in Redis nor done was lost
+    private void shardsAcquired(Set<Integer> shards) {
+        if (checkpointWindowMs <= 0 || !running) {
+            return;
+        }
+        LocalDateTime createdBefore = LocalDateTime.now();
+        pollScheduler.schedule(() -> recover(shards, createdBefore),
+                Instant.now().plusMillis(2 * checkpointWindowMs));
+    }
+
+    private void recover(Set<Integer> shards, LocalDateTime createdBefore) {
+        if (recoveryCallback == null || !running) {
+            return;
+        }
+        try {
+            recoveryCallback.accept(shards, createdBefore);
+        } catch (Exception e) {
+            logger.error("Error while re-arming the timeouts of shards {}", shards, e);
+        }
+    }
+
+    //The running poll is no longer pending: without this, the poll rescheduling itself would see its own
+    //future (not done yet) as the next poll and skip it
+    private synchronized void pollStarted() {
+        nextPoll = null;
+    }
+
+    private synchronized void schedulePoll(long pollAt) {
+        if (!running) {
+            return;
+        }
+        if (nextPoll != null && !nextPoll.isDone()) {
+            if (nextPollAt <= pollAt) {
+                return;
+            }
+            nextPoll.cancel(false);
+        }
+        long at = Math.max(pollAt, System.currentTimeMillis() + MIN_POLL_DELAY_MS);
+        nextPollAt = at;
+        nextPoll = pollScheduler.schedule(this::pollExpiredTimeouts, Instant.ofEpochMilli(at));
+    }
+
+    //Pending key -> in-flight key of the owned shards
+    private Map<String, String> ownedKeys() {
+        Map<String, String> keys = new LinkedHashMap<>();
+        for (int shard : shardManager.getOwnedShards()) {
+            keys.put(shardKey(shard), INFLIGHT_KEY + shard);
+            if (shard == 0) {
+                keys.put(LEGACY_TIMEOUT_KEY, INFLIGHT_KEY + shard);
+            }
+        }
+        return keys;
+    }
+
+    private static String shardKey(int shard) {
+        return TIMEOUT_KEY + shard;
+    }
+
     private static long getDelayMillis(LocalDateTime expireAt) {
         Objects.requireNonNull(expireAt, "ExpireAt cannot be null");
 
@@ -0,0 +1,147 @@
+package com.example.orchestrator.scheduling;
+
+import com.example.common.statics.SagaConstants;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Splits saga timeouts over {@code saga.timeout.shards} Redis keys and decides which shards this node polls.
+ * Live nodes heartbeat into a sorted set; shard {@code i} belongs to the {@code i % n}-th live node (by id)
+ * and is only polled while this node holds its lease, so a shard never has two pollers.
+ */
+@Component
+public class TimeoutShardManager {
+    private static final Logger logger = LoggerFactory.getLogger(TimeoutShardManager.class);
+    private static final String NODES_KEY = "timeout:nodes";
+    private static final String OWNER_KEY = "timeout:shard-owner:";
+
+    private static final String CLAIM_SCRIPT = """
+            local owner = redis.call('GET', KEYS[1])
+            if owner == false or owner == ARGV[1] then
+                redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+                return 1
+            end
+            return 0
+            """;
+
+    private static final String RELEASE_SCRIPT = """
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """;
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final DefaultRedisScript<Long> claimScript;
+    private final DefaultRedisScript<Long> releaseScript;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final int shards;
+
+    private volatile Set<Integer> ownedShards = Set.of();
+    private volatile Consumer<Set<Integer>> acquiredListener;
+
+    public TimeoutShardManager(RedisTemplate<String, String> redisTemplate,
+                               @Value("${saga.timeout.shards:16}") int shards) {
+        this.redisTemplate = redisTemplate;
+        this.shards = shards;
+
+        this.claimScript = new DefaultRedisScript<>(CLAIM_SCRIPT, Long.class);
+        this.releaseScript = new DefaultRedisScript<>(RELEASE_SCRIPT, Long.class);
+    }
+
+    public int shardOf(String eventId) {
+        return Math.floorMod(eventId.hashCode(), shards);
+    }
+
+    public Set<Integer> getOwnedShards() {
+        return ownedShards;
+    }
+
+    /**
+     * Called with the shards this node starts to own, including all of them on the first rebalance.
+     */
+    public void onShardsAcquired(Consumer<Set<Integer>> listener) {
+        this.acquiredListener = listener;
+    }
+
+    @Scheduled(fixedRate = SagaConstants.TIMEOUT_SHARD_LEASE_MS / 3)
+    public void rebalance() {
+        try {
+            long now = System.currentTimeMillis();
+            ZSetOperations<String, String> zset = redisTemplate.opsForZSet();
+            zset.add(NODES_KEY, nodeId, now);
+            zset.removeRangeByScore(NODES_KEY, 0, now - SagaConstants.TIMEOUT_SHARD_LEASE_MS);
+
+            List<String> nodes = new ArrayList<>(Objects.requireNonNullElse(zset.range(NODES_KEY, 0, -1),
+                    Set.of(nodeId)));
+            Collections.sort(nodes);
+            int index = nodes.indexOf(nodeId);
+
+            Set<Integer> owned = new HashSet<>();
+            for (int shard = 0; shard < shards; shard++) {
+                if (index >= 0 && shard % nodes.size() == index) {
+                    if (claim(shard)) {
+                        owned.add(shard);
+                    }
+                } else if (ownedShards.contains(shard)) {
+                    release(shard);
+                }
+            }
+
+            if (!owned.equals(ownedShards)) {
+                logger.info("Timeout shards owned by node {}: {}", nodeId, owned);
+            }
+            Set<Integer> acquired = new HashSet<>(owned);
+            acquired.removeAll(ownedShards);
+            ownedShards = Set.copyOf(owned);
+            notifyAcquired(acquired);
+        } catch (Exception e) {
+            //Leases can't be renewed, other nodes take the shards over when they expire
+            logger.error("Error while rebalancing timeout shards", e);
+            ownedShards = Set.of();
+        }
+    }
+
+    @PreDestroy
+    public void leave() {
+        try {
+            ownedShards.forEach(this::release);
+            redisTemplate.opsForZSet().remove(NODES_KEY, nodeId);
+        } catch (Exception e) {
+            logger.warn("Error while leaving timeout shards: {}", e.getMessage());
+        }
+        ownedShards = Set.of();
+    }
+
+    private void notifyAcquired(Set<Integer> acquired) {
+        Consumer<Set<Integer>> listener = acquiredListener;
+        if (acquired.isEmpty() || listener == null) {
+            return;
+        }
+        try {
+            listener.accept(Set.copyOf(acquired));
+        } catch (Exception e) {
+            logger.error("Error while handling acquired timeout shards {}", acquired, e);
+        }
+    }
+
+    private boolean claim(int shard) {
+        Long result = redisTemplate.execute(claimScript, Collections.singletonList(OWNER_KEY + shard),
+                nodeId, String.valueOf(SagaConstants.TIMEOUT_SHARD_LEASE_MS));
+        return result != null && result == 1L;
+    }
+
+    private void release(int shard) {
+        redisTemplate.execute(releaseScript, Collections.singletonList(OWNER_KEY + shard), nodeId);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.orchestrator.service;
+
+import com.example.common.statics.SagaConstants;
+import com.example.common.utils.Try;
+import com.example.orchestrator.dao.ProcessedEventDao;
+import com.example.orchestrator.entity.ProcessedEventEntity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Drops redelivered events before any saga work.
+ * Lookup order is an in-process LRU, then a Redis key with TTL, then the {@code processed_event} table,
+ * which is the authority because it is written in the same transaction as the event's effects.
+ */
+@Service
+@Transactional(readOnly = true)
+public class IdempotencyService {
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+    private static final String PROCESSED_KEY = "processed_event:";
+    private static final Duration REDIS_TTL = Duration.ofMillis(SagaConstants.PROCESSED_EVENT_TTL_MS);
+
+    private final ProcessedEventDao dao;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final Map<String, Boolean> recentlyProcessed = Collections.synchronizedMap(
+            new LinkedHashMap<>(1024, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > SagaConstants.PROCESSED_EVENT_CACHE_SIZE;
+                }
+            });
+
+    private final Counter memoryHits;
+    private final Counter redisHits;
+    private final Counter dbHits;
+    private final Counter misses;
+
+    public IdempotencyService(ProcessedEventDao dao, RedisTemplate<String, String> redisTemplate,
+                              MeterRegistry meterRegistry) {
+        this.dao = dao;
+        this.redisTemplate = redisTemplate;
+
+        this.memoryHits = meterRegistry.counter("saga.idempotency.hit", "layer", "memory");
+        this.redisHits = meterRegistry.counter("saga.idempotency.hit", "layer", "redis");
+        this.dbHits = meterRegistry.counter("saga.idempotency.hit", "layer", "db");
+        this.misses = meterRegistry.counter("saga.idempotency.miss");
+    }
+
+    public boolean isDuplicate(String eventId) {
+        if (eventId == null) {
+            return false;
+        }
+        if (recentlyProcessed.containsKey(eventId)) {
+            memoryHits.increment();
+            return true;
+        }
+
+        Boolean inRedis = Try.of(() -> redisTemplate.hasKey(processedKey(eventId)))
+                .onFailure(ex -> logger.warn("Idempotency lookup in Redis failed: {}", ex.getMessage()))
+                .getOrNull();
+        if (Boolean.TRUE.equals(inRedis)) {
+            redisHits.increment();
+            recentlyProcessed.put(eventId, Boolean.TRUE);
+            return true;
+        }
+
+        if (dao.existsById(eventId)) {
+            dbHits.increment();
+            recentlyProcessed.put(eventId, Boolean.TRUE);
+            return true;
+        }
+
+        misses.increment();
+        return false;
+    }
+
+    /**
+     * Records the event in the caller's transaction. Caches are only filled after commit.
+     * A concurrent duplicate fails on the primary key and is rolled back.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void markProcessed(String eventId) {
+        if (eventId == null) {
+            return;
+        }
+        dao.save(new ProcessedEventEntity(eventId));
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentlyProcessed.put(eventId, Boolean.TRUE);
+                Try.run(() -> redisTemplate.opsForValue().set(processedKey(eventId), "1", REDIS_TTL))
+                        .onFailure(ex -> logger.warn("Idempotency write to Redis failed: {}", ex.getMessage()));
+            }
+        });
+    }
+
+    @Transactional
+    @Scheduled(fixedDelay = SagaConstants.PROCESSED_EVENT_CLEANUP_MS)
+    public void deleteExpired() {
+        int deleted = dao.deleteAllProcessedBefore(
+                LocalDateTime.now().minus(Duration.ofMillis(SagaConstants.PROCESSED_EVENT_RETENTION_MS)));
+        if (deleted > 0) {
+            logger.info("Deleted {} processed event ids", deleted);
+        }
+    }
+
+    private static String processedKey(String eventId) {
+        return PROCESSED_KEY + eventId;
+    }
+}
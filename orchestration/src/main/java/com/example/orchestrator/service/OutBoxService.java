@@ -0,0 +1,36 @@
+package com.example.orchestrator.service;
+
+import com.example.orchestrator.dao.OutBoxDao;
+import com.example.orchestrator.dto.OutBox;
+import com.example.orchestrator.entity.OutBoxEntity;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+public class OutBoxService {
+    private final OutBoxDao dao;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Stores the command in the caller's transaction, it is sent by {@code OutBoxRelay} after commit.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void save(OutBox outBox) {
+        OutBoxEntity entity = new OutBoxEntity();
+        entity.setTopic(outBox.topic());
+        entity.setAggregateId(outBox.command().getAggregateId());
+        entity.setSagaInstanceId(outBox.command().getSagaInstanceId());
+        entity.setTriggerEvent(outBox.triggerEvent());
+        try {
+            entity.setCommand(objectMapper.writeValueAsString(outBox.command()));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize command " + outBox.command(), e);
+        }
+        dao.save(entity);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.orchestrator.service;
+
+import com.example.common.messaging.enums.EventType;
+import com.example.orchestrator.dao.SagaDao;
+import com.example.orchestrator.dto.SagaDefinition;
+import com.example.orchestrator.dto.SagaDefinitionChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory registry of compiled saga definitions.
+ * Loaded once at startup, before the listeners start, and swapped atomically whenever a definition changes,
+ * so event handling never queries the saga/step tables.
+ */
+@Service
+@RequiredArgsConstructor
+public class SagaDefinitionRegistry implements SmartInitializingSingleton {
+    private static final Logger logger = LoggerFactory.getLogger(SagaDefinitionRegistry.class);
+    private final SagaDao dao;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    //After all the singletons are created and before the lifecycle beans (Kafka listener containers) start,
+    //so no record is handled against an empty registry
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
+    public void afterSingletonsInstantiated() {
+        reload();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
+    public void onDefinitionChanged(SagaDefinitionChangedEvent event) {
+        logger.info("Saga definition {} changed, reloading registry", event.sagaId());
+        reload();
+    }
+
+    public SagaDefinition getByTrigger(EventType eventType) {
+        return snapshot.byTrigger().get(eventType);
+    }
+
+    public SagaDefinition getById(String sagaId) {
+        return sagaId == null ? null : snapshot.byId().get(sagaId);
+    }
+
+    private void reload() {
+        List<SagaDefinition> definitions = dao.findAllWithSteps().stream()
+                .map(SagaDefinition::new)
+                .toList();
+
+        Map<String, SagaDefinition> byId = new HashMap<>();
+        Map<EventType, SagaDefinition> byTrigger = new EnumMap<>(EventType.class);
+        for (SagaDefinition definition : definitions) {
+            byId.put(definition.id(), definition);
+            //Inactive sagas are kept by id so that running instances can finish
+            if (definition.active()) {
+                SagaDefinition previous = byTrigger.put(definition.triggerEvent(), definition);
+                if (previous != null) {
+                    logger.warn("Multiple active sagas for trigger {}: {} replaced by {}",
+                            definition.triggerEvent(), previous.name(), definition.name());
+                }
+            }
+        }
+
+        snapshot = new Snapshot(Map.copyOf(byId), Map.copyOf(byTrigger));
+        logger.info("Loaded {} saga definitions", definitions.size());
+    }
+
+    private record Snapshot(Map<String, SagaDefinition> byId, Map<EventType, SagaDefinition> byTrigger) {
+        static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of());
+    }
+}
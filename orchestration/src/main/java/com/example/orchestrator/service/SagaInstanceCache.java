@@ -0,0 +1,104 @@
+package com.example.orchestrator.service;
+
+import com.example.orchestrator.dao.SagaInstanceDao;
+import com.example.orchestrator.entity.SagaInstanceEntity;
+import com.example.orchestrator.entity.SagaStepInstanceEntity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+
+/**
+ * Loads saga instances with their steps from the Hibernate second-level cache when they are there
+ * (the in-flight sagas this node handled), instead of the join fetch query.
+ * The regions are read-write: committed changes are written through, and the {@code @Version} check of the
+ * update rejects a transition computed from a stale entry (e.g. after a timeout handled by another node);
+ * the retry then reads the database. Terminated instances are evicted, and everything is evicted when the
+ * Kafka partitions are rebalanced (see KafkaConfig), since replies of a saga are only handled by the owner of
+ * its partition.
+ */
+@Component
+public class SagaInstanceCache {
+    public static final String INSTANCES = "saga-instances";
+    public static final String INSTANCE_STEPS = "saga-instance-steps";
+    public static final String STEPS = "saga-step-instances";
+    private static final String STEPS_ROLE = SagaInstanceEntity.class.getName() + ".steps";
+
+    private final SagaInstanceDao dao;
+    private final Cache cache;
+    private final Counter hits;
+    private final Counter misses;
+
+    public SagaInstanceCache(SagaInstanceDao dao, EntityManagerFactory entityManagerFactory,
+                             MeterRegistry meterRegistry) {
+        this.dao = dao;
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        this.hits = meterRegistry.counter("saga.instance.cache", "result", "hit");
+        this.misses = meterRegistry.counter("saga.instance.cache", "result", "miss");
+    }
+
+    public Optional<SagaInstanceEntity> findWithSteps(String sagaInstanceId) {
+        if (cache.containsEntity(SagaInstanceEntity.class, sagaInstanceId)) {
+            hits.increment();
+            //Instance, steps collection and step rows all come from the cache
+            return dao.findById(sagaInstanceId);
+        }
+        misses.increment();
+        return dao.findByIdWithSteps(sagaInstanceId);
+    }
+
+    public List<SagaInstanceEntity> findAllWithSteps(Collection<String> sagaInstanceIds) {
+        List<SagaInstanceEntity> result = new ArrayList<>(sagaInstanceIds.size());
+        List<String> uncached = new ArrayList<>();
+        for (String sagaInstanceId : sagaInstanceIds) {
+            if (cache.containsEntity(SagaInstanceEntity.class, sagaInstanceId)) {
+                hits.increment();
+                dao.findById(sagaInstanceId).ifPresent(result::add);
+            } else {
+                misses.increment();
+                uncached.add(sagaInstanceId);
+            }
+        }
+        if (!uncached.isEmpty()) {
+            result.addAll(dao.findAllByIdWithSteps(uncached));
+        }
+        return result;
+    }
+
+    /**
+     * Evicts a terminated instance once the current transaction commits (the commit itself writes it through).
+     */
+    public void evictAfterCommit(SagaInstanceEntity instance) {
+        String sagaInstanceId = instance.getId();
+        //Step ids are read after commit, steps created in this transaction have none before the flush
+        Set<SagaStepInstanceEntity> steps = instance.getSteps();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(sagaInstanceId, steps);
+                }
+            });
+        } else {
+            evict(sagaInstanceId, steps);
+        }
+    }
+
+    public void evictAll() {
+        cache.evictEntityData(SagaInstanceEntity.class);
+        cache.evictCollectionData(STEPS_ROLE);
+        cache.evictEntityData(SagaStepInstanceEntity.class);
+    }
+
+    private void evict(String sagaInstanceId, Set<SagaStepInstanceEntity> steps) {
+        cache.evictEntityData(SagaInstanceEntity.class, sagaInstanceId);
+        cache.evictCollectionData(STEPS_ROLE, sagaInstanceId);
+        steps.forEach(step -> cache.evictEntityData(SagaStepInstanceEntity.class, step.getId()));
+    }
+}
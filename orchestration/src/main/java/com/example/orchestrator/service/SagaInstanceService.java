@@ -11,9 +11,12 @@ import com.example.orchestrator.dao.SagaInstanceDao;
 import com.example.orchestrator.dto.*;
 import com.example.orchestrator.dto.mapper.SagaStatusMessageMapper;
 import com.example.orchestrator.exception.SagaInitException;
+import com.example.orchestrator.metrics.SagaMetrics;
+import com.example.orchestrator.metrics.StepLatencyTracker;
 import com.example.orchestrator.entity.SagaInstanceEntity;
 import com.example.orchestrator.entity.SagaStepInstanceEntity;
 import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
@@ -25,44 +28,108 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import org.springframework.util.StringUtils;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class SagaInstanceService {
     private static final Logger logger = LoggerFactory.getLogger(SagaInstanceService.class);
-    private final SagaService sagaService;
-    private final SagaStepService sagaStepService;
+    private final SagaDefinitionRegistry definitionRegistry;
     private final ApplicationEventPublisher eventPublisher;
     private final SagaInstanceDao dao;
+    private final SagaInstanceCache instanceCache;
     private final SagaTimeoutService sagaTimeoutService;
+    private final OutBoxService outBoxService;
+    private final IdempotencyService idempotencyService;
+    private final SagaMetrics metrics;
+    private final StepLatencyTracker stepLatencyTracker;
 
     @Transactional
     public void run(BaseEvent event) {
-        SagaHolder holder = init(event);
-        SagaInstanceEntity instance = holder.instance();
-        if (!holder.success()) {
-            publishResult(SagaExecuteResult.failBuilder()
-                    .sagaInstanceId(event.getSagaInstanceId())
-                    .message("Init failed for " + event)
-                    .status(SagaStatusMessageMapper.map(instance))
-                    .build()
-            );
-            return;
+        Timer.Sample sample = metrics.start();
+        String outcome = SagaMetrics.ERROR;
+        try {
+            idempotencyService.markProcessed(event.getEventId());
+            SagaHolder holder = init(event, this::loadExistingSagaInstance);
+            SagaInstanceEntity instance = holder.instance();
+            if (!holder.success()) {
+                publishInitFailed(event, instance);
+                outcome = SagaMetrics.INIT_FAILED;
+                return;
+            }
+
+            if (holder.start() && instance.hasExpireTime()) {
+                sagaTimeoutService.scheduleTimeout(event, holder.sagaId(), instance.getId(), instance.getExpiresAt());
+            }
+
+            advice(event, holder.start(), holder.saga(), instance);
+            outcome = SagaMetrics.SUCCESS;
+        } finally {
+            metrics.stage(sample, "run", event, null, outcome);
         }
+    }
+
+    /**
+     * Applies step replies of already running sagas in one transaction.
+     * All affected instances are loaded with a single query and flushed together on commit;
+     * each event still produces its own {@link SagaExecuteResult}.
+     */
+    @Transactional
+    public void runBatch(List<BaseEvent> events) {
+        Set<String> sagaInstanceIds = events.stream()
+                .map(BaseEvent::getSagaInstanceId)
+                .collect(Collectors.toSet());
+        Map<String, SagaInstanceEntity> instances = new HashMap<>();
+        instanceCache.findAllWithSteps(sagaInstanceIds).forEach(instance -> instances.put(instance.getId(), instance));
+
+        for (BaseEvent event : events) {
+            idempotencyService.markProcessed(event.getEventId());
+            SagaHolder holder = init(event, sagaInstanceId -> {
+                SagaInstanceEntity instance = instances.get(sagaInstanceId);
+                if (instance == null) {
+                    throw new SagaInitException("No saga instance found for sagaInstanceId " + sagaInstanceId);
+                }
+                return instance;
+            });
+            if (!holder.success()) {
+                publishInitFailed(event, holder.instance());
+                continue;
+            }
 
-        if (holder.start() && instance.hasExpireTime()) {
-            sagaTimeoutService.scheduleTimeout(event, holder.sagaId(), instance.getId(), instance.getExpiresAt());
+            advice(event, false, holder.saga(), holder.instance());
         }
+    }
 
-        advice(event, holder.start(), holder.sagaId(), instance, holder.sagaSteps());
+    private void publishInitFailed(BaseEvent event, SagaInstanceEntity instance) {
+        publishResult(SagaExecuteResult.failBuilder()
+                .sagaInstanceId(event.getSagaInstanceId())
+                .message("Init failed for " + event)
+                .status(SagaStatusMessageMapper.map(instance))
+                .build()
+        );
     }
 
     @Transactional
-    public void advice(BaseEvent event, boolean start, String sagaId, SagaInstanceEntity instance,
-                       List<SagaStepDto> sagaSteps) {
+    public void advice(BaseEvent event, boolean start, SagaDefinition saga, SagaInstanceEntity instance) {
+        Timer.Sample sample = metrics.start();
+        Integer step = instance.getCurrentStep();
+        String outcome = SagaMetrics.ERROR;
+        try {
+            outcome = doAdvice(event, start, saga, instance);
+        } finally {
+            metrics.stage(sample, "advice", event, step, outcome);
+        }
+    }
+
+    private String doAdvice(BaseEvent event, boolean start, SagaDefinition saga, SagaInstanceEntity instance) {
+        String sagaId = saga.id();
         String sagaInstanceId = instance.getId();
+        List<SagaStepDto> sagaSteps = saga.steps();
 
         if (sagaSteps.isEmpty()) {
             logger.error("No steps found for for sagaId={}, eventType={}", sagaId, event.getEventType());
@@ -72,7 +139,7 @@ public class SagaInstanceService {
                     .status(SagaStatusMessageMapper.map(instance))
                     .build()
             );
-            return;
+            return SagaMetrics.FAILURE;
         }
         SagaStepDto currentStep;
         if (!start) {
@@ -85,32 +152,36 @@ public class SagaInstanceService {
                         .status(SagaStatusMessageMapper.map(instance))
                         .build()
                 );
-                return;
+                return SagaMetrics.INVALID_TRANSITION;
             }
 
-            SagaStepInstanceEntity stepInstance = getOrCreateStepInstance(instance, currentStep,
-                    event.getEventType());
+            SagaStepInstanceEntity stepInstance = getOrCreateStepInstance(instance, currentStep);
             stepInstance.incrementRetryCount();
+            stepInstance.setEventReceived(event.getEventType());
             stepInstance.setStatus(StepState.COMPLETED);
+            stepInstance.setCompletedAt(LocalDateTime.now());
+            stepLatencyTracker.record(saga.name(), currentStep, stepInstance.getLatency(), SagaMetrics.SUCCESS);
         }
 
         instance.setCurrentStep(instance.getCurrentStep() + 1);
 
         OutBox outBox = null;
         if (instance.getCurrentStep() <= sagaSteps.size()) {
-            SagaStepDto nextStep = sagaSteps.stream()
-                    .filter(step -> step.stepOrder().equals(instance.getCurrentStep()))
-                    .findFirst()
-                    .orElseThrow(() -> new IllegalStateException("Invalid saga step"));
+            SagaStepDto nextStep = saga.getStep(instance.getCurrentStep());
+            if (nextStep == null) {
+                throw new IllegalStateException("Invalid saga step");
+            }
 
             outBox = new OutBox(
                     nextStep.commandTopic(),
                     new BaseCommand(event.getAggregateId(), nextStep.commandType(),
-                            instance.getContextData(), sagaId, sagaInstanceId),
+                            instance.getContextData().get(), sagaId, sagaInstanceId),
                     event.getEventType()
             );
+            getOrCreateStepInstance(instance, nextStep).setDispatchedAt(LocalDateTime.now());
         } else {
             instance.setStatus(ExecutionState.COMPLETED);
+            instanceCache.evictAfterCommit(instance);
             if (instance.hasExpireTime()) {
                 sagaTimeoutService.cancelSchedule(instance.getTriggerEventId());
             }
@@ -125,13 +196,17 @@ public class SagaInstanceService {
                 .triggeringEvent(event)
                 .build()
         );
+        return SagaMetrics.SUCCESS;
     }
 
     private void publishResult(SagaExecuteResult result) {
+        if (result.success() && result.outBox() != null) {
+            outBoxService.save(result.outBox());
+        }
         eventPublisher.publishEvent(result);
     }
 
-    private SagaHolder init(BaseEvent event) {
+    private SagaHolder init(BaseEvent event, Function<String, SagaInstanceEntity> instanceLoader) {
         String sagaInstanceId = event.getSagaInstanceId();
         boolean isStartEvent = isStart(sagaInstanceId);
 
@@ -141,13 +216,13 @@ public class SagaInstanceService {
                 validateInit(event);
                 instance = createNewSagaInstance(event);
             } else {
-                instance = loadExistingSagaInstance(sagaInstanceId);
+                instance = instanceLoader.apply(sagaInstanceId);
                 validateInstance(instance);
             }
 
-            List<SagaStepDto> steps = sagaStepService.getAllBySagaIdSorted(instance.getSagaId());
+            SagaDefinition saga = getSagaDefinition(instance.getSagaId());
 
-            return SagaHolder.success(instance.getSagaId(), instance, steps, isStartEvent);
+            return SagaHolder.success(instance, saga, isStartEvent);
         } catch (SagaInitException e) {
             logger.error(e.getMessage());
             return SagaHolder.fail();
@@ -170,16 +245,24 @@ public class SagaInstanceService {
     }
 
     private SagaInstanceEntity createNewSagaInstance(BaseEvent event) {
-        SagaDto saga = sagaService.getByTrigger(event.getEventType());
+        SagaDefinition saga = definitionRegistry.getByTrigger(event.getEventType());
         if (saga == null) {
             throw new SagaInitException("No saga definition for event type " + event.getEventType());
         }
 
-        return dao.save(new SagaInstanceEntity(saga, event));
+        return dao.save(new SagaInstanceEntity(saga.saga(), event));
+    }
+
+    private SagaDefinition getSagaDefinition(String sagaId) {
+        SagaDefinition saga = definitionRegistry.getById(sagaId);
+        if (saga == null) {
+            throw new SagaInitException("No saga definition for sagaId " + sagaId);
+        }
+        return saga;
     }
 
     private SagaInstanceEntity loadExistingSagaInstance(String sagaInstanceId) {
-        return dao.findByIdWithSteps(sagaInstanceId)
+        return instanceCache.findWithSteps(sagaInstanceId)
                 .orElseThrow(() ->
                         new SagaInitException("No saga instance found for sagaInstanceId " + sagaInstanceId)
                 );
@@ -208,7 +291,8 @@ public class SagaInstanceService {
             logger.warn("Unexpected event type: {}", value.getClass());
             return;
         }
-        handleSagaFailureAndPublishCompensationCommands(event);
+        idempotencyService.markProcessed(event.getEventId());
+        handleSagaFailureAndPublishCompensationCommands(event, SagaMetrics.ERROR);
         moveToDeadLetter(event);
     }
 
@@ -231,13 +315,26 @@ public class SagaInstanceService {
 
     @Transactional
     public void onTimeoutOrFailure(BaseEvent event) {
-        logger.warn("onTimeoutOrFailure {}", event);
-        handleSagaFailureAndPublishCompensationCommands(event);
-        moveToDeadLetter(event);
+        Timer.Sample sample = metrics.start();
+        String outcome = SagaMetrics.ERROR;
+        try {
+            logger.warn("onTimeoutOrFailure {}", event);
+            idempotencyService.markProcessed(event.getEventId());
+            handleSagaFailureAndPublishCompensationCommands(event,
+                    event.isFailureEvent() ? SagaMetrics.FAILURE : SagaMetrics.TIMEOUT);
+            moveToDeadLetter(event);
+            outcome = SagaMetrics.SUCCESS;
+        } finally {
+            metrics.stage(sample, event.isFailureEvent() ? "failure" : "timeout", event, null, outcome);
+        }
     }
 
-    private void handleSagaFailureAndPublishCompensationCommands(BaseEvent event) {
-        List<OutBox> compensationCommands = Try.of(() -> handleSagaFailureAndPrepareCompensationCommands(event))
+    /**
+     * The step still waiting for its reply is recorded in {@link StepLatencyTracker} with {@code stepOutcome}.
+     */
+    private void handleSagaFailureAndPublishCompensationCommands(BaseEvent event, String stepOutcome) {
+        List<OutBox> compensationCommands = Try.of(() -> handleSagaFailureAndPrepareCompensationCommands(event,
+                        stepOutcome))
                 .onFailure(e -> {
                     logger.error("Compensation failed", e);
                     rollbackCurrentTransaction();
@@ -257,7 +354,7 @@ public class SagaInstanceService {
     }
 
     private SagaStatusMessage getSagaStatusMessage(String sagaInstanceId) {
-        Optional<SagaInstanceEntity> optInstance = Try.of(() -> dao.findByIdWithSteps(sagaInstanceId))
+        Optional<SagaInstanceEntity> optInstance = Try.of(() -> instanceCache.findWithSteps(sagaInstanceId))
                 .getOrNull();
         if (optInstance != null && optInstance.isPresent()) {
             return SagaStatusMessageMapper.map(optInstance.get());
@@ -265,26 +362,27 @@ public class SagaInstanceService {
         return null;
     }
 
-    private List<OutBox> handleSagaFailureAndPrepareCompensationCommands(BaseEvent event) {
+    private List<OutBox> handleSagaFailureAndPrepareCompensationCommands(BaseEvent event, String stepOutcome) {
         return handleSagaFailureAndPrepareCompensationCommands(event.getSagaId(), event.getSagaInstanceId(),
                 event.getAggregateId(), event.getPayload(),
-                event.getEventType(), true, event.isFailureEvent());
+                event.getEventType(), true, event.isFailureEvent(), stepOutcome);
     }
 
     private void markSagaFailed(BaseCommand command, EventType triggerEvent) {
         handleSagaFailureAndPrepareCompensationCommands(command.getSagaId(), command.getSagaInstanceId(),
                 command.getAggregateId(),
-                command.getPayload(), triggerEvent, false, false);
+                command.getPayload(), triggerEvent, false, false, null);
     }
 
     private List<OutBox> handleSagaFailureAndPrepareCompensationCommands(
             String sagaId, String sagaInstanceId, String aggregateId, JsonNode payload, EventType triggerEvent,
-            boolean shouldCompensate, boolean isFailureEvent) {
+            boolean shouldCompensate, boolean isFailureEvent, String stepOutcome) {
         boolean start = isStart(sagaInstanceId);
         List<OutBox> outBoxList = new ArrayList<>();
-        List<SagaStepDto> sagaSteps = getSagaSteps(sagaId, triggerEvent, start);
+        SagaDefinition saga = getSagaDefinition(sagaId, triggerEvent, start);
+        List<SagaStepDto> sagaSteps = saga.steps();
         if (!start) {
-            dao.findByIdWithSteps(sagaInstanceId).ifPresent(instance -> {
+            instanceCache.findWithSteps(sagaInstanceId).ifPresent(instance -> {
                 if (instance.isTerminated()) {
                     logger.error("Instance {} currently terminated with status {}.",
                             sagaInstanceId, instance.getStatus());
@@ -293,11 +391,12 @@ public class SagaInstanceService {
 
                 if (!shouldCompensate) {
                     instance.setStatus(ExecutionState.FAILED);
+                    instanceCache.evictAfterCommit(instance);
                     dao.save(instance);
                     return;
                 }
                 instance.setStatus(ExecutionState.COMPENSATING);
-                markLastStepInstanceAsFailed(instance);
+                markLastStepInstanceAsFailed(saga, instance, stepOutcome);
                 dao.save(instance);
 
                 //Add last element after the if-else
@@ -315,9 +414,10 @@ public class SagaInstanceService {
             });
         }
 
-        SagaStepDto lastSagaStep = sagaSteps.stream()
-                .max(Comparator.comparing(SagaStepDto::stepOrder))
-                .orElseThrow(() -> new IllegalStateException("No steps found!"));
+        SagaStepDto lastSagaStep = saga.getLastStep();
+        if (lastSagaStep == null) {
+            throw new IllegalStateException("No steps found!");
+        }
 
         if (needPublishFailureCommand(isFailureEvent, lastSagaStep, triggerEvent)) {
             BaseCommand outBoxCommand = new BaseCommand(
@@ -337,24 +437,33 @@ public class SagaInstanceService {
         return !(isFailureEvent && sagaStep.expectedEventType() == triggerEvent);
     }
 
-    private List<SagaStepDto> getSagaSteps(String sagaId, EventType triggerEvent, boolean isStart) {
-        if (isStart) {
-            sagaId = sagaService.getIdByTrigger(triggerEvent);
-            if (sagaId == null) {
-                throw new IllegalStateException("No saga found for event " + triggerEvent);
-            }
+    private SagaDefinition getSagaDefinition(String sagaId, EventType triggerEvent, boolean isStart) {
+        SagaDefinition saga = isStart ? definitionRegistry.getByTrigger(triggerEvent)
+                : definitionRegistry.getById(sagaId);
+        if (saga == null) {
+            throw new IllegalStateException("No saga found for event " + triggerEvent);
         }
-        return sagaStepService.getAllBySagaIdSorted(sagaId);
+        return saga;
     }
 
-    private void markLastStepInstanceAsFailed(SagaInstanceEntity instance) {
+    private void markLastStepInstanceAsFailed(SagaDefinition saga, SagaInstanceEntity instance, String stepOutcome) {
         instance.getSteps().stream()
                 .max(Comparator.comparing(SagaStepInstanceEntity::getStepOrder))
-                .ifPresent(lastStep -> lastStep.setStatus(StepState.FAILED));
+                .ifPresent(lastStep -> {
+                    //Dispatched but not replied: it timed out, failed or its reply could not be handled
+                    SagaStepDto step = saga.getStep(lastStep.getStepOrder());
+                    if (lastStep.getCompletedAt() == null && lastStep.getDispatchedAt() != null && step != null) {
+                        stepLatencyTracker.record(saga.name(), step,
+                                Duration.between(lastStep.getDispatchedAt(), LocalDateTime.now()), stepOutcome);
+                    }
+                    lastStep.setStatus(StepState.FAILED);
+                });
     }
 
     @Transactional
     public void onCompensatoryEvent(BaseEvent event) {
+        Timer.Sample sample = metrics.start();
+        idempotencyService.markProcessed(event.getEventId());
         //Try: Because we don't want handle compensatory events in consumer container.
         SagaInstanceEntity instance = Try.of(() -> updateSagaCompensationStatus(event))
                 .onFailure(ex -> {
@@ -372,10 +481,11 @@ public class SagaInstanceService {
                     .build()
             );
         }
+        metrics.stage(sample, "compensation", event, null, instance != null ? SagaMetrics.SUCCESS : SagaMetrics.FAILURE);
     }
 
     private SagaInstanceEntity updateSagaCompensationStatus(BaseEvent event) {
-        SagaInstanceEntity instance = dao.findByIdWithSteps(event.getSagaInstanceId()).orElse(null);
+        SagaInstanceEntity instance = instanceCache.findWithSteps(event.getSagaInstanceId()).orElse(null);
         if (instance == null) {
             logger.warn("No instance found for event {}", event);
             return null;
@@ -388,6 +498,8 @@ public class SagaInstanceService {
         }
 
         List<SagaStepInstanceEntity> stepInstances = instance.getSteps().stream()
+                //The step still waiting for its reply when the saga failed has nothing to compensate
+                .filter(stepInstance -> stepInstance.getCompletedAt() != null)
                 .sorted(Comparator.comparing(SagaStepInstanceEntity::getStepOrder))
                 .toList();
         int currentStep = instance.getCurrentStep();
@@ -398,6 +510,7 @@ public class SagaInstanceService {
 
         if (allCompensated) {
             instance.setStatus(ExecutionState.FAILED);
+            instanceCache.evictAfterCommit(instance);
         }
         return dao.save(instance);
     }
@@ -410,15 +523,17 @@ public class SagaInstanceService {
         return event.getEventType() == currentStep.expectedEventType();
     }
 
-    private static SagaStepInstanceEntity getOrCreateStepInstance(SagaInstanceEntity instance,
-                                                                  SagaStepDto step, EventType eventType) {
+    /**
+     * The step instance is created when its command is dispatched and updated when the reply arrives.
+     */
+    private static SagaStepInstanceEntity getOrCreateStepInstance(SagaInstanceEntity instance, SagaStepDto step) {
         return instance.getSteps().stream()
                 .filter(a -> a.getStepId().equals(step.id()))
                 .findFirst()
                 .orElseGet(() -> {
                     SagaStepInstanceEntity stepInstance = new SagaStepInstanceEntity();
                     stepInstance.setCommandType(step.commandType());
-                    stepInstance.setEventReceived(eventType);
+                    stepInstance.setEventReceived(step.expectedEventType());
                     stepInstance.setStatus(StepState.IN_PROGRESS);
                     stepInstance.setRetryCount((short) 0);
                     stepInstance.setStepOrder(step.stepOrder());
@@ -5,10 +5,13 @@ import com.example.common.messaging.enums.CommandType;
 import com.example.common.messaging.enums.EventType;
 import com.example.common.statics.SagaConstants;
 import com.example.orchestrator.dao.SagaDao;
+import com.example.orchestrator.dto.SagaDefinition;
+import com.example.orchestrator.dto.SagaDefinitionChangedEvent;
 import com.example.orchestrator.dto.SagaDto;
 import com.example.orchestrator.entity.SagaEntity;
 import com.example.orchestrator.entity.SagaStepEntity;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,6 +23,8 @@ import java.util.concurrent.TimeUnit;
 @Transactional(readOnly = true)
 public class SagaService {
     private final SagaDao dao;
+    private final SagaDefinitionRegistry registry;
+    private final ApplicationEventPublisher eventPublisher;
 
     //TODO: Read from .yaml file
     @Transactional
@@ -63,18 +68,17 @@ public class SagaService {
         entity.setSteps(Set.of(reserveStock, processPayment, completeOrder));
 
         dao.save(entity);
+        eventPublisher.publishEvent(new SagaDefinitionChangedEvent(entity.getId()));
     }
 
     public String getIdByTrigger(EventType eventType) {
-        return dao.findByTriggerEvent(eventType)
-                .map(SagaEntity::getId)
-                .orElse(null);
+        SagaDefinition definition = registry.getByTrigger(eventType);
+        return definition != null ? definition.id() : null;
     }
 
     public SagaDto getByTrigger(EventType eventType) {
-        return dao.findByTriggerEvent(eventType)
-                .map(SagaDto::new)
-                .orElse(null);
+        SagaDefinition definition = registry.getByTrigger(eventType);
+        return definition != null ? definition.saga() : null;
     }
 
     public boolean existsByName(String name) {
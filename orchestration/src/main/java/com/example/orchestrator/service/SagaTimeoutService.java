@@ -1,8 +1,11 @@
 package com.example.orchestrator.service;
 
+import com.example.common.enums.ExecutionState;
 import com.example.common.messaging.model.BaseEvent;
-import com.example.common.utils.Try;
+import com.example.common.statics.SagaConstants;
+import com.example.orchestrator.converter.LazyJson;
 import com.example.orchestrator.dao.SagaStarterEventDao;
+import com.example.orchestrator.dto.PendingTimeout;
 import com.example.orchestrator.dto.SagaTimeoutEvent;
 import com.example.orchestrator.entity.SagaStarterEventEntity;
 import com.example.orchestrator.scheduling.SagaTimeoutScheduler;
@@ -11,11 +14,13 @@ import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -29,6 +34,7 @@ public class SagaTimeoutService {
     @PostConstruct
     public void registerCallback() {
         sagaTimeoutScheduler.registerTimeoutCallback(this::handleSagaTimeout);
+        sagaTimeoutScheduler.registerRecoveryCallback(this::recoverTimeouts);
     }
 
     @Transactional
@@ -45,16 +51,28 @@ public class SagaTimeoutService {
         sagaTimeoutScheduler.cancelTimeout(id);
     }
 
+    //Failures propagate so the scheduler doesn't acknowledge the timeout and it is retried after its lease
     private void handleSagaTimeout(String eventId) {
         logger.info("Timeout triggered for event: {}", eventId);
-        Try.run(() -> dao.findById(eventId).ifPresentOrElse(entity -> {
+        dao.findById(eventId).ifPresentOrElse(entity -> {
                     eventPublisher.publishEvent(new SagaTimeoutEvent(entity));
                 },
-                () -> logger.error("Event {} not found", eventId)))
-                .onFailure(ex -> {
-                    logger.error("Saga timeout error", ex);
-                    TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
-                });
+                () -> logger.error("Event {} not found", eventId));
+    }
+
+    //Pages through the running instances with a timeout, the scheduler keeps those of the shards
+    private void recoverTimeouts(Set<Integer> shards, LocalDateTime createdBefore) {
+        String after = "";
+        List<PendingTimeout> page;
+        do {
+            page = dao.findPendingTimeouts(ExecutionState.RUNNING, createdBefore, after,
+                    PageRequest.of(0, SagaConstants.TIMEOUT_POLL_BATCH_SIZE));
+            if (page.isEmpty()) {
+                return;
+            }
+            sagaTimeoutScheduler.rearm(shards, page);
+            after = page.get(page.size() - 1).eventId();
+        } while (page.size() == SagaConstants.TIMEOUT_POLL_BATCH_SIZE);
     }
 
     public void create(BaseEvent event, String sagaId, String sagaInstanceId) {
@@ -65,7 +83,7 @@ public class SagaTimeoutService {
         entity.setAggregateId(event.getAggregateId());
         entity.setOccurredAt(event.getOccurredAt());
         entity.setEventType(event.getEventType());
-        entity.setPayload(event.getPayload());
+        entity.setPayload(LazyJson.of(event.getPayload()));
 
         dao.save(entity);
     }
@@ -0,0 +1,127 @@
+-- Orchestrator schema for the postgres profile (H2 keeps ddl-auto: update).
+-- Ids are UUIDv7 strings (TimeOrderedId), inserted in ascending order.
+
+CREATE TABLE saga
+(
+    id                  VARCHAR(36)  NOT NULL,
+    created_at          TIMESTAMP(6) NOT NULL,
+    updated_at          TIMESTAMP(6) NOT NULL,
+    version             BIGINT,
+    name                VARCHAR(255) NOT NULL,
+    defined_version     INTEGER      NOT NULL,
+    active              BOOLEAN      NOT NULL,
+    trigger_event       VARCHAR(64)  NOT NULL,
+    -- Nanoseconds (hibernate.type.preferred_duration_jdbc_type: NUMERIC)
+    expiration_duration NUMERIC(21),
+    CONSTRAINT pk_saga PRIMARY KEY (id)
+);
+CREATE INDEX idx_saga_trigger_event ON saga (trigger_event);
+CREATE INDEX idx_saga_name ON saga (name);
+
+CREATE TABLE saga_step
+(
+    id                  VARCHAR(36)  NOT NULL,
+    created_at          TIMESTAMP(6) NOT NULL,
+    updated_at          TIMESTAMP(6) NOT NULL,
+    version             BIGINT,
+    saga_id             VARCHAR(36)  NOT NULL,
+    step_order          INTEGER      NOT NULL,
+    name                VARCHAR(255) NOT NULL,
+    command_type        VARCHAR(64)  NOT NULL,
+    command_topic       VARCHAR(255) NOT NULL,
+    expected_event_type VARCHAR(64)  NOT NULL,
+    on_failure_command  VARCHAR(64)  NOT NULL,
+    next_step_condition VARCHAR(255),
+    CONSTRAINT pk_saga_step PRIMARY KEY (id),
+    CONSTRAINT fk_saga_step_saga FOREIGN KEY (saga_id) REFERENCES saga (id)
+);
+CREATE INDEX idx_saga_step_saga_order ON saga_step (saga_id, step_order);
+
+CREATE TABLE saga_instance
+(
+    id                 VARCHAR(36)  NOT NULL,
+    created_at         TIMESTAMP(6) NOT NULL,
+    updated_at         TIMESTAMP(6) NOT NULL,
+    version            BIGINT,
+    trigger_event_id   VARCHAR(36)  NOT NULL,
+    aggregate_id       VARCHAR(255) NOT NULL,
+    current_step       INTEGER      NOT NULL,
+    status             VARCHAR(32)  NOT NULL,
+    -- UTF-8 JSON bytes (LazyJsonConverter)
+    context_data       BYTEA        NOT NULL,
+    expires_at         TIMESTAMP(6),
+    step_dispatched_at TIMESTAMP(6),
+    saga_id            VARCHAR(36)  NOT NULL,
+    CONSTRAINT pk_saga_instance PRIMARY KEY (id),
+    CONSTRAINT uk_saga_instance_aggregate_id UNIQUE (aggregate_id),
+    CONSTRAINT uk_saga_instance_trigger_event_id UNIQUE (trigger_event_id),
+    CONSTRAINT fk_saga_instance_saga FOREIGN KEY (saga_id) REFERENCES saga (id)
+);
+CREATE INDEX idx_saga_instance_saga_id ON saga_instance (saga_id);
+
+CREATE TABLE saga_step_instance
+(
+    id             VARCHAR(36)  NOT NULL,
+    created_at     TIMESTAMP(6) NOT NULL,
+    updated_at     TIMESTAMP(6) NOT NULL,
+    version        BIGINT,
+    command_type   VARCHAR(64)  NOT NULL,
+    event_received VARCHAR(64)  NOT NULL,
+    status         VARCHAR(32)  NOT NULL,
+    retry_count    SMALLINT     NOT NULL,
+    error_details  VARCHAR(255),
+    dispatched_at  TIMESTAMP(6),
+    completed_at   TIMESTAMP(6),
+    step_order     INTEGER      NOT NULL,
+    name           VARCHAR(255) NOT NULL,
+    instance_id    VARCHAR(36)  NOT NULL,
+    step_id        VARCHAR(36)  NOT NULL,
+    CONSTRAINT pk_saga_step_instance PRIMARY KEY (id),
+    -- Also the index of the steps fetch by instance_id
+    CONSTRAINT uk_saga_step_instance_instance_step UNIQUE (instance_id, step_id),
+    CONSTRAINT fk_saga_step_instance_instance FOREIGN KEY (instance_id) REFERENCES saga_instance (id),
+    CONSTRAINT fk_saga_step_instance_step FOREIGN KEY (step_id) REFERENCES saga_step (id)
+);
+CREATE INDEX idx_saga_step_instance_step_id ON saga_step_instance (step_id);
+
+CREATE TABLE saga_starter_event
+(
+    id           VARCHAR(36)  NOT NULL,
+    saga_id      VARCHAR(36)  NOT NULL,
+    instance_id  VARCHAR(36)  NOT NULL,
+    aggregate_id VARCHAR(255) NOT NULL,
+    occurred_at  TIMESTAMP(6) NOT NULL,
+    event_type   VARCHAR(64)  NOT NULL,
+    -- UTF-8 JSON bytes (LazyJsonConverter)
+    payload      BYTEA        NOT NULL,
+    CONSTRAINT pk_saga_starter_event PRIMARY KEY (id),
+    CONSTRAINT fk_saga_starter_event_saga FOREIGN KEY (saga_id) REFERENCES saga (id),
+    CONSTRAINT fk_saga_starter_event_instance FOREIGN KEY (instance_id) REFERENCES saga_instance (id)
+);
+CREATE INDEX idx_saga_starter_event_instance_id ON saga_starter_event (instance_id);
+
+CREATE TABLE saga_outbox
+(
+    id            VARCHAR(36)  NOT NULL,
+    created_at    TIMESTAMP(6) NOT NULL,
+    updated_at    TIMESTAMP(6) NOT NULL,
+    version       BIGINT,
+    topic         VARCHAR(255) NOT NULL,
+    aggregate_id  VARCHAR(255) NOT NULL,
+    instance_id   VARCHAR(36),
+    trigger_event VARCHAR(64)  NOT NULL,
+    command       TEXT         NOT NULL,
+    attempts      SMALLINT     NOT NULL,
+    last_error    VARCHAR(255),
+    CONSTRAINT pk_saga_outbox PRIMARY KEY (id)
+);
+-- Relay polls the oldest rows with FOR UPDATE SKIP LOCKED
+CREATE INDEX idx_saga_outbox_created_at ON saga_outbox (created_at);
+
+CREATE TABLE processed_event
+(
+    id           VARCHAR(36)  NOT NULL,
+    processed_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_processed_event PRIMARY KEY (id)
+);
+CREATE INDEX idx_processed_event_at ON processed_event (processed_at);
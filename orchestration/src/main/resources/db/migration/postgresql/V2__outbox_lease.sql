@@ -0,0 +1,2 @@
+-- Rows claimed by a relay until their send is acknowledged (OutBoxRelay), null when due
+ALTER TABLE saga_outbox ADD COLUMN lease_until TIMESTAMP(6);
@@ -0,0 +1,2 @@
+-- Step instances are created at dispatch and carry dispatched_at themselves (SagaInstanceService)
+ALTER TABLE saga_instance DROP COLUMN step_dispatched_at;
@@ -4,6 +4,8 @@ import com.example.common.messaging.model.BaseCommand;
 import com.example.common.messaging.model.BaseEvent;
 import org.apache.kafka.clients.consumer.*;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
@@ -24,6 +26,7 @@ public final class KafkaTestUtilsEx {
             EmbeddedKafkaBroker embeddedKafka, String group) {
         Map<String, Object> props = KafkaTestUtils.consumerProps(embeddedKafka.getBrokersAsString(),
                 group, "true");
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
         props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, BaseEvent.class);
         return new KafkaConsumer<>(props);
@@ -33,6 +36,7 @@ public final class KafkaTestUtilsEx {
             EmbeddedKafkaBroker embeddedKafka) {
         Map<String, Object> props = KafkaTestUtils.consumerProps(embeddedKafka.getBrokersAsString(),
                 "test-" + UUID.randomUUID(), "true");
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
         props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, BaseEvent.class);
         return new KafkaConsumer<>(props);
@@ -42,6 +46,7 @@ public final class KafkaTestUtilsEx {
             EmbeddedKafkaBroker embeddedKafka) {
         Map<String, Object> props = KafkaTestUtils.consumerProps(embeddedKafka.getBrokersAsString(),
                 "test-" + UUID.randomUUID(), "true");
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
         props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, BaseCommand.class);
         return new KafkaConsumer<>(props);
@@ -49,6 +54,7 @@ public final class KafkaTestUtilsEx {
 
     static ProducerFactory<String, BaseEvent> eventProducerFactory(EmbeddedKafkaBroker embeddedKafka) {
         Map<String, Object> configs = KafkaTestUtils.producerProps(embeddedKafka);
+        configs.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         configs.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
         return new DefaultKafkaProducerFactory<>(configs);
     }
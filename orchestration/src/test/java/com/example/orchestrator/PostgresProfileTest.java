@@ -0,0 +1,143 @@
+package com.example.orchestrator;
+
+import com.example.common.enums.ExecutionState;
+import com.example.common.enums.StepState;
+import com.example.common.messaging.enums.CommandType;
+import com.example.common.messaging.enums.EventType;
+import com.example.common.statics.KafkaNames;
+import com.example.orchestrator.converter.LazyJson;
+import com.example.orchestrator.dao.OutBoxDao;
+import com.example.orchestrator.dao.SagaDao;
+import com.example.orchestrator.dao.SagaInstanceDao;
+import com.example.orchestrator.dao.SagaStarterEventDao;
+import com.example.orchestrator.entity.*;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the Flyway migrations of the postgres profile on an embedded PostgreSQL binary and round-trips every
+ * entity through them. Skipped unless {@code -Dsaga.postgres.enabled=true} (PostgreSQL refuses to run as root).
+ */
+@DataJpaTest
+@ActiveProfiles("postgres")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfSystemProperty(named = "saga.postgres.enabled", matches = "true")
+class PostgresProfileTest {
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private SagaDao sagaDao;
+    @Autowired
+    private SagaInstanceDao instanceDao;
+    @Autowired
+    private SagaStarterEventDao eventDao;
+    @Autowired
+    private OutBoxDao outBoxDao;
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.start();
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @AfterAll
+    static void tearDown() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void entities_round_trip_through_migrated_schema() throws IOException {
+        JsonNode payload = new ObjectMapper().readTree("{\"stockId\":\"700\",\"quantity\":2}");
+
+        SagaEntity saga = new SagaEntity();
+        saga.setName("OrderStockSaga");
+        saga.setDefinedVersion(1);
+        saga.setTriggerEvent(EventType.ORDER_CREATED);
+        saga.setExpirationDuration(Duration.ofMinutes(1));
+        SagaStepEntity step = new SagaStepEntity();
+        step.setStepOrder(1);
+        step.setName("Reserve Stock");
+        step.setCommandType(CommandType.RESERVE_STOCK);
+        step.setExpectedEventType(EventType.STOCK_RESERVED);
+        step.setOnFailureCommand(CommandType.RELEASE_STOCK);
+        step.setCommandTopic(KafkaNames.INVENTORY_COMMANDS);
+        step.setSaga(saga);
+        saga.setSteps(Set.of(step));
+        entityManager.persist(saga);
+
+        SagaInstanceEntity instance = new SagaInstanceEntity();
+        instance.setTriggerEventId("trigger-1");
+        instance.setAggregateId("order-1");
+        instance.setCurrentStep(1);
+        instance.setStatus(ExecutionState.RUNNING);
+        instance.setContextData(LazyJson.of(payload));
+        instance.setExpiresAt(LocalDateTime.now().plusMinutes(1));
+        instance.setSagaId(saga.getId());
+        entityManager.persist(instance);
+
+        SagaStepInstanceEntity stepInstance = new SagaStepInstanceEntity();
+        stepInstance.setCommandType(CommandType.RESERVE_STOCK);
+        stepInstance.setEventReceived(EventType.STOCK_RESERVED);
+        stepInstance.setStatus(StepState.COMPLETED);
+        stepInstance.setRetryCount((short) 1);
+        stepInstance.setStepOrder(1);
+        stepInstance.setName("Reserve Stock");
+        stepInstance.setInstance(instance);
+        stepInstance.setStepId(step.getId());
+        instance.getSteps().add(stepInstance);
+        entityManager.persist(stepInstance);
+
+        SagaStarterEventEntity event = new SagaStarterEventEntity();
+        event.setId("trigger-1");
+        event.setSagaId(saga.getId());
+        event.setSagaInstanceId(instance.getId());
+        event.setAggregateId("order-1");
+        event.setOccurredAt(LocalDateTime.now());
+        event.setEventType(EventType.ORDER_CREATED);
+        event.setPayload(LazyJson.of(payload));
+        entityManager.persist(event);
+
+        OutBoxEntity outBox = new OutBoxEntity();
+        outBox.setTopic(KafkaNames.INVENTORY_COMMANDS);
+        outBox.setAggregateId("order-1");
+        outBox.setSagaInstanceId(instance.getId());
+        outBox.setTriggerEvent(EventType.ORDER_CREATED);
+        outBox.setCommand("{}");
+        entityManager.persist(outBox);
+        entityManager.persist(new ProcessedEventEntity("trigger-1"));
+        entityManager.flush();
+        entityManager.clear();
+
+        SagaInstanceEntity loaded = instanceDao.findByIdWithSteps(instance.getId()).orElseThrow();
+        assertThat(loaded.getContextData().get()).isEqualTo(payload);
+        assertThat(loaded.getSteps()).hasSize(1);
+        assertThat(instanceDao.existsByAggregateId("order-1")).isTrue();
+        assertThat(eventDao.findById("trigger-1").orElseThrow().getPayload().get()).isEqualTo(payload);
+        assertThat(sagaDao.findAllWithSteps()).singleElement()
+                .satisfies(loadedSaga -> assertThat(loadedSaga.getExpirationDuration()).isEqualTo(Duration.ofMinutes(1)));
+        assertThat(outBoxDao.findDue(LocalDateTime.now(), PageRequest.of(0, 10))).hasSize(1);
+    }
+}
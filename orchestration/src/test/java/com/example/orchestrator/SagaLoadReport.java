@@ -0,0 +1,101 @@
+package com.example.orchestrator;
+
+import com.example.common.enums.ExecutionState;
+import com.example.common.messaging.model.SagaStatusMessage;
+import com.example.orchestrator.SagaLoadResponders.Scenario;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Start-to-terminal latency of every saga sent by {@link SagaLoadTest}, grouped by scenario.
+ * A saga is finished on its first COMPLETED or FAILED status.
+ */
+final class SagaLoadReport {
+
+    private static final class Tracked {
+        private final Scenario scenario;
+        private final long sentAt;
+        private volatile long finishedAt;
+        private volatile ExecutionState status;
+
+        private Tracked(Scenario scenario, long sentAt) {
+            this.scenario = scenario;
+            this.sentAt = sentAt;
+        }
+    }
+
+    private final Map<String, Tracked> sagas = new ConcurrentHashMap<>();
+
+    void sent(String aggregateId, Scenario scenario) {
+        sagas.put(aggregateId, new Tracked(scenario, System.nanoTime()));
+    }
+
+    Scenario scenarioOf(String aggregateId) {
+        Tracked tracked = sagas.get(aggregateId);
+        return tracked != null ? tracked.scenario : Scenario.NORMAL;
+    }
+
+    void onStatus(SagaStatusMessage status) {
+        if (status == null || (status.status() != ExecutionState.COMPLETED && status.status() != ExecutionState.FAILED)) {
+            return;
+        }
+        Tracked tracked = sagas.get(status.aggregateId());
+        if (tracked != null && tracked.status == null) {
+            tracked.finishedAt = System.nanoTime();
+            tracked.status = status.status();
+        }
+    }
+
+    boolean allFinished() {
+        return sagas.values().stream().allMatch(tracked -> tracked.status != null);
+    }
+
+    long finished(Scenario scenario) {
+        return sagas.values().stream()
+                .filter(tracked -> tracked.scenario == scenario && tracked.status != null)
+                .count();
+    }
+
+    String render(int rate, int durationSeconds) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Saga load: target %d sagas/s for %ds, %d sent%n", rate, durationSeconds, sagas.size()));
+        sb.append(String.format("%-16s %7s %9s %9s %10s %9s %9s %9s %9s  %s%n", "scenario", "sent", "finished",
+                "pending", "sagas/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "statuses"));
+        for (Scenario scenario : Scenario.values()) {
+            List<Tracked> group = sagas.values().stream().filter(tracked -> tracked.scenario == scenario).toList();
+            if (!group.isEmpty()) {
+                sb.append(row(scenario.name(), group));
+            }
+        }
+        sb.append(row("ALL", new ArrayList<>(sagas.values())));
+        return sb.toString();
+    }
+
+    private static String row(String name, List<Tracked> group) {
+        List<Tracked> finished = group.stream().filter(tracked -> tracked.status != null).toList();
+        long[] latencies = finished.stream().mapToLong(tracked -> tracked.finishedAt - tracked.sentAt).sorted().toArray();
+
+        Map<ExecutionState, Long> statuses = new EnumMap<>(ExecutionState.class);
+        finished.forEach(tracked -> statuses.merge(tracked.status, 1L, Long::sum));
+
+        double throughput = 0;
+        if (!finished.isEmpty()) {
+            long firstSent = group.stream().mapToLong(tracked -> tracked.sentAt).min().orElseThrow();
+            long lastFinished = finished.stream().mapToLong(tracked -> tracked.finishedAt).max().orElseThrow();
+            throughput = finished.size() / Math.max((lastFinished - firstSent) / 1e9, 1e-3);
+        }
+
+        return String.format("%-16s %7d %9d %9d %10.1f %9.1f %9.1f %9.1f %9.1f  %s%n", name, group.size(),
+                finished.size(), group.size() - finished.size(), throughput, percentile(latencies, 0.50),
+                percentile(latencies, 0.95), percentile(latencies, 0.99), percentile(latencies, 1.0), statuses);
+    }
+
+    private static double percentile(long[] sortedNanos, double p) {
+        if (sortedNanos.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.ceil(p * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1e6;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.orchestrator;
+
+import com.example.common.messaging.enums.EventType;
+import com.example.common.messaging.model.BaseCommand;
+import com.example.common.messaging.model.BaseEvent;
+import com.example.common.messaging.model.mapper.EventCommandMapper;
+import com.example.common.statics.KafkaNames;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.errors.WakeupException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Stand-in of the inventory, payment and order services: answers every saga command right away,
+ * except for the sagas whose scenario asks for a failed payment or a lost stock reservation.
+ */
+final class SagaLoadResponders implements AutoCloseable {
+
+    enum Scenario {
+        //All steps succeed
+        NORMAL,
+        //PROCESS_PAYMENT answered with a failure event, the orchestrator compensates
+        PAYMENT_FAILURE,
+        //RESERVE_STOCK never answered, the saga expires and is compensated
+        TIMEOUT
+    }
+
+    private final KafkaConsumer<String, BaseCommand> consumer;
+    private final KafkaTemplate<String, BaseEvent> eventKafkaTemplate;
+    private final Function<String, Scenario> scenarioOf;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    SagaLoadResponders(EmbeddedKafkaBroker embeddedKafka, KafkaTemplate<String, BaseEvent> eventKafkaTemplate,
+                       Function<String, Scenario> scenarioOf) {
+        this.consumer = KafkaTestUtilsEx.createCommandConsumer(embeddedKafka);
+        this.eventKafkaTemplate = eventKafkaTemplate;
+        this.scenarioOf = scenarioOf;
+        this.worker = new Thread(this::run, "saga-load-responders");
+    }
+
+    void start() {
+        consumer.subscribe(List.of(KafkaNames.INVENTORY_COMMANDS, KafkaNames.PAYMENT_COMMANDS,
+                KafkaNames.ORDER_COMMANDS));
+        worker.start();
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                for (ConsumerRecord<String, BaseCommand> record : consumer.poll(Duration.ofMillis(100))) {
+                    BaseEvent reply = reply(record.value());
+                    if (reply != null) {
+                        eventKafkaTemplate.send(topicOf(record.topic()), reply.getAggregateId(), reply);
+                    }
+                }
+            }
+        } catch (WakeupException ignored) {
+            //Closing
+        } finally {
+            consumer.close();
+        }
+    }
+
+    private BaseEvent reply(BaseCommand command) {
+        Scenario scenario = scenarioOf.apply(command.getAggregateId());
+        return switch (command.getCommandType()) {
+            case RESERVE_STOCK -> scenario == Scenario.TIMEOUT ? null
+                    : EventCommandMapper.toEvent(command, EventType.STOCK_RESERVED);
+            case RELEASE_STOCK -> EventCommandMapper.toEvent(command, EventType.STOCK_RELEASED);
+            case PROCESS_PAYMENT -> {
+                BaseEvent event = EventCommandMapper.toEvent(command, EventType.PAYMENT_SUCCEEDED);
+                if (scenario == Scenario.PAYMENT_FAILURE) {
+                    event.markThisIsFailureEvent();
+                }
+                yield event;
+            }
+            case REFUND_PAYMENT -> EventCommandMapper.toEvent(command, EventType.PAYMENT_REFUNDED);
+            case COMPLETE_ORDER -> EventCommandMapper.toEvent(command, EventType.ORDER_COMPLETED);
+            case CANCEL_ORDER -> EventCommandMapper.toEvent(command, EventType.ORDER_CANCELLED);
+        };
+    }
+
+    private static String topicOf(String commandTopic) {
+        return switch (commandTopic) {
+            case KafkaNames.INVENTORY_COMMANDS -> KafkaNames.INVENTORY_EVENTS;
+            case KafkaNames.PAYMENT_COMMANDS -> KafkaNames.PAYMENT_EVENTS;
+            default -> KafkaNames.ORDER_EVENTS;
+        };
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        consumer.wakeup();
+        worker.join();
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.orchestrator;
+
+import com.example.common.messaging.enums.EventType;
+import com.example.common.messaging.model.BaseEvent;
+import com.example.common.messaging.model.SagaStatusFrame;
+import com.example.common.messaging.model.SagaStatusMessage;
+import com.example.common.statics.KafkaNames;
+import com.example.common.statics.RedisChannelNames;
+import com.example.common.statics.SagaConstants;
+import com.example.orchestrator.SagaLoadResponders.Scenario;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput/latency harness of the OrderStockSaga: drives ORDER_CREATED events at a fixed rate through the
+ * orchestrator, with {@link SagaLoadResponders} in place of the other services, an embedded Kafka and an
+ * embedded Redis. Skipped unless {@code -Dsaga.load.enabled=true}, e.g.
+ * <pre>
+ * ./mvnw -pl orchestration -am test -Dtest=SagaLoadTest -Dsurefire.failIfNoSpecifiedTests=false \
+ *     -Dsaga.load.enabled=true -Dsaga.load.rate=200 -Dsaga.load.duration-seconds=60
+ * </pre>
+ * The report is logged and written to {@code target/saga-load-report.txt}.
+ */
+@SpringBootTest
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "saga.load.enabled", matches = "true")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:load-db;DB_CLOSE_DELAY=-1",
+        "saga.kafka.partitions=3",
+        "saga.kafka.listener-concurrency=3",
+        "logging.level.com.example.orchestrator=WARN",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.stat=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+        "logging.level.org.springframework.data.repository.query=WARN"
+})
+@EmbeddedKafka(
+        partitions = 3,
+        topics = {KafkaNames.ORDER_EVENTS, KafkaNames.ORDER_COMMANDS, KafkaNames.INVENTORY_EVENTS,
+                KafkaNames.INVENTORY_COMMANDS, KafkaNames.PAYMENT_EVENTS, KafkaNames.PAYMENT_COMMANDS,
+                KafkaNames.SAGA_EVENTS
+        },
+        bootstrapServersProperty = "spring.kafka.bootstrap-servers"
+)
+public class SagaLoadTest {
+    private static final Logger logger = LoggerFactory.getLogger(SagaLoadTest.class);
+
+    private static final int RATE = Integer.getInteger("saga.load.rate", 100);
+    private static final int DURATION_SECONDS = Integer.getInteger("saga.load.duration-seconds", 30);
+    private static final double FAILURE_RATIO = Double.parseDouble(System.getProperty("saga.load.failure-ratio", "0.05"));
+    //Timed out sagas finish after TOTAL_WORKFLOW_TIMEOUT_MS, the drain is extended accordingly
+    private static final double TIMEOUT_RATIO = Double.parseDouble(System.getProperty("saga.load.timeout-ratio", "0"));
+    private static final int DRAIN_SECONDS = Integer.getInteger("saga.load.drain-seconds", 30);
+
+    private static RedisServer redisServer;
+
+    @Autowired
+    private EmbeddedKafkaBroker embeddedKafka;
+    @Autowired
+    private KafkaListenerEndpointRegistry listenerRegistry;
+    @Autowired
+    private RedisConnectionFactory redisConnectionFactory;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final SagaLoadReport report = new SagaLoadReport();
+    private final Random random = new Random(42);
+    private KafkaTemplate<String, BaseEvent> eventKafkaTemplate;
+    private SagaLoadResponders responders;
+    private RedisMessageListenerContainer statusListener;
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+        registry.add("spring.data.redis.host", () -> "localhost");
+        registry.add("spring.data.redis.port", () -> port);
+    }
+
+    @BeforeAll
+    void setup() {
+        eventKafkaTemplate = new KafkaTemplate<>(KafkaTestUtilsEx.eventProducerFactory(embeddedKafka));
+
+        statusListener = new RedisMessageListenerContainer();
+        statusListener.setConnectionFactory(redisConnectionFactory);
+        statusListener.addMessageListener((message, pattern) -> SagaStatusFrame.forEach(
+                new String(message.getBody(), StandardCharsets.UTF_8), (aggregateId, version, status) -> {
+                    try {
+                        report.onStatus(objectMapper.readValue(status, SagaStatusMessage.class));
+                    } catch (IOException e) {
+                        logger.warn("Unreadable status {}", e.getMessage());
+                    }
+                }), new PatternTopic(RedisChannelNames.ORDER_STATUS_PATTERN));
+        statusListener.afterPropertiesSet();
+        statusListener.start();
+
+        responders = new SagaLoadResponders(embeddedKafka, eventKafkaTemplate, report::scenarioOf);
+        responders.start();
+
+        for (MessageListenerContainer container : listenerRegistry.getListenerContainers()) {
+            if (container.isRunning()) {
+                ContainerTestUtils.waitForAssignment(container, 3 * embeddedKafka.getPartitionsPerTopic());
+            }
+        }
+    }
+
+    @AfterAll
+    void tearDown() throws Exception {
+        responders.close();
+        statusListener.stop();
+        statusListener.destroy();
+        redisServer.stop();
+    }
+
+    @Test
+    void sustained_rate() throws IOException {
+        long total = (long) RATE * DURATION_SECONDS;
+        long start = System.nanoTime();
+        long sent = 0;
+        while (sent < total) {
+            long due = Math.min(total, (System.nanoTime() - start) * RATE / 1_000_000_000L + 1);
+            for (; sent < due; sent++) {
+                send(nextScenario());
+            }
+            LockSupport.parkNanos(1_000_000);
+        }
+        eventKafkaTemplate.flush();
+
+        int drainSeconds = TIMEOUT_RATIO > 0
+                ? Math.max(DRAIN_SECONDS, SagaConstants.TOTAL_WORKFLOW_TIMEOUT_MS / 1_000 + DRAIN_SECONDS)
+                : DRAIN_SECONDS;
+        long drainDeadline = System.currentTimeMillis() + drainSeconds * 1_000L;
+        while (!report.allFinished() && System.currentTimeMillis() < drainDeadline) {
+            LockSupport.parkNanos(100_000_000);
+        }
+
+        String rendered = report.render(RATE, DURATION_SECONDS);
+        logger.warn("\n{}", rendered);
+        Files.writeString(Path.of("target", "saga-load-report.txt"), rendered);
+
+        assertThat(report.finished(Scenario.NORMAL)).isPositive();
+    }
+
+    private Scenario nextScenario() {
+        double draw = random.nextDouble();
+        if (draw < TIMEOUT_RATIO) {
+            return Scenario.TIMEOUT;
+        }
+        return draw < TIMEOUT_RATIO + FAILURE_RATIO ? Scenario.PAYMENT_FAILURE : Scenario.NORMAL;
+    }
+
+    private void send(Scenario scenario) {
+        String orderId = UUID.randomUUID().toString();
+        JsonNode payload = objectMapper.createObjectNode()
+                .put("stockId", "700")
+                .put("quantity", 1);
+        report.sent(orderId, scenario);
+        eventKafkaTemplate.send(KafkaNames.ORDER_EVENTS, orderId,
+                new BaseEvent(orderId, EventType.ORDER_CREATED, payload));
+    }
+}
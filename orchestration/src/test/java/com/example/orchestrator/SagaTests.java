@@ -45,7 +45,9 @@ import static org.mockito.Mockito.clearInvocations;
 @DirtiesContext
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 @TestPropertySource(properties = {
-        "spring.datasource.url=jdbc:h2:mem:test-db;DB_CLOSE_DELAY=-1"
+        "spring.datasource.url=jdbc:h2:mem:test-db;DB_CLOSE_DELAY=-1",
+        "saga.kafka.partitions=1",
+        "saga.kafka.listener-concurrency=1"
 })
 @EmbeddedKafka(
         partitions = 1,
@@ -116,7 +118,7 @@ public class SagaTests {
             KafkaTestUtilsEx.drain(consumer, KafkaNames.ORDER_EVENTS);
             ///sagaListener.onEvent(event);
         }
-        check_step(CommandType.RESERVE_STOCK, 1, 0);
+        check_step(CommandType.RESERVE_STOCK, 1, 1);
 
         //1: Simulate Inventory Service
         BaseCommand reserveStockCommand;
@@ -133,7 +135,7 @@ public class SagaTests {
         eventKafkaTemplate.send(KafkaNames.INVENTORY_EVENTS, stockReservedEvent);
 
         //2
-        check_step(CommandType.PROCESS_PAYMENT, 2, 1);
+        check_step(CommandType.PROCESS_PAYMENT, 2, 2);
 
         //3: Simulate Payment Service
         BaseCommand processPaymentCommand;
@@ -151,7 +153,7 @@ public class SagaTests {
         eventKafkaTemplate.send(KafkaNames.PAYMENT_EVENTS, paymentProcessedEvent);
 
         //4
-        check_step(CommandType.COMPLETE_ORDER, 3, 2);
+        check_step(CommandType.COMPLETE_ORDER, 3, 3);
 
 
         //3: Simulate Order Service
@@ -255,7 +257,7 @@ public class SagaTests {
             ConsumerRecord<String, BaseEvent> record = recordList.get(0);
             sagaListener.onEvent(record.value());//We need call it directly for first time, why?
         }
-        check_step(CommandType.RESERVE_STOCK, 1, 0);
+        check_step(CommandType.RESERVE_STOCK, 1, 1);
 
         //1: Simulate Inventory Service
         BaseCommand reserveStockCommand;
@@ -287,7 +289,9 @@ public class SagaTests {
         assertThat(instance).isNotNull();
         assertThat(instance.getStatus()).isEqualTo(ExecutionState.COMPENSATING);
         
-        assertThat(instance.getSteps().size()).isEqualTo(0);
+        //The step instance of the dispatched command, whose reply could not be handled
+        assertThat(instance.getSteps()).singleElement()
+                .satisfies(stepInstance -> assertThat(stepInstance.getStatus()).isEqualTo(StepState.FAILED));
     }
 
     private BaseEvent getOrderEvent() {
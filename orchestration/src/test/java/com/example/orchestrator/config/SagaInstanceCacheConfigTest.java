@@ -0,0 +1,42 @@
+package com.example.orchestrator.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import javax.cache.CacheManager;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SagaInstanceCacheConfigTest {
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(SagaInstanceCacheConfig.class);
+
+    @Test
+    void enabledByDefaultWithBoundedRegionsOnly() {
+        contextRunner.run(context -> {
+            assertThat(context).hasSingleBean(CacheManager.class);
+            Map<String, Object> properties = customize(context.getBean(HibernatePropertiesCustomizer.class));
+            assertThat(properties)
+                    .containsEntry("hibernate.cache.use_second_level_cache", true)
+                    .containsEntry("hibernate.javax.cache.missing_cache_strategy", "fail");
+        });
+    }
+
+    @Test
+    void disabledSwitchesTheSecondLevelCacheOff() {
+        contextRunner.withPropertyValues("saga.instance-cache.enabled=false").run(context -> {
+            assertThat(context).doesNotHaveBean(CacheManager.class);
+            Map<String, Object> properties = customize(context.getBean(HibernatePropertiesCustomizer.class));
+            assertThat(properties).containsEntry("hibernate.cache.use_second_level_cache", false);
+        });
+    }
+
+    private static Map<String, Object> customize(HibernatePropertiesCustomizer customizer) {
+        Map<String, Object> properties = new HashMap<>();
+        customizer.customize(properties);
+        return properties;
+    }
+}
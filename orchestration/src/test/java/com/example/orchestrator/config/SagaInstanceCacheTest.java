@@ -0,0 +1,90 @@
+package com.example.orchestrator.config;
+
+import com.example.common.messaging.enums.CommandType;
+import com.example.common.messaging.enums.EventType;
+import com.example.common.messaging.model.BaseEvent;
+import com.example.orchestrator.dto.SagaDto;
+import com.example.orchestrator.entity.SagaEntity;
+import com.example.orchestrator.entity.SagaInstanceEntity;
+import com.example.orchestrator.entity.SagaStepEntity;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Round trip of a saga instance through the second-level cache: the cached state is disassembled at commit
+ * and assembled again on load, which the properties checked by {@link SagaInstanceCacheConfigTest} don't cover.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(SagaInstanceCacheConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SagaInstanceCacheTest {
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void instanceIsReloadedFromTheSecondLevelCache() {
+        ObjectNode context = JsonNodeFactory.instance.objectNode().put("orderId", "order-1").put("amount", 42);
+        String instanceId = inTransaction(entityManager -> {
+            SagaEntity saga = saga();
+            entityManager.persist(saga);
+            SagaInstanceEntity instance = new SagaInstanceEntity(new SagaDto(saga),
+                    new BaseEvent("order-1", EventType.ORDER_CREATED, context));
+            entityManager.persist(instance);
+            return instance.getId();
+        });
+        assertThat(entityManagerFactory.getCache().contains(SagaInstanceEntity.class, instanceId)).isTrue();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        SagaInstanceEntity reloaded = inTransaction(entityManager ->
+                entityManager.find(SagaInstanceEntity.class, instanceId));
+
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(reloaded.getContextData().get()).isEqualTo(context);
+        assertThat(reloaded.getAggregateId()).isEqualTo("order-1");
+    }
+
+    private <T> T inTransaction(Function<EntityManager, T> work) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            T result = work.apply(entityManager);
+            entityManager.getTransaction().commit();
+            return result;
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private static SagaEntity saga() {
+        SagaEntity saga = new SagaEntity();
+        saga.setName("OrderFulfillment");
+        saga.setDefinedVersion(1);
+        saga.setTriggerEvent(EventType.ORDER_CREATED);
+        SagaStepEntity step = new SagaStepEntity();
+        step.setStepOrder(0);
+        step.setName("ReserveStock");
+        step.setCommandType(CommandType.RESERVE_STOCK);
+        step.setCommandTopic("inventory-commands");
+        step.setExpectedEventType(EventType.STOCK_RESERVED);
+        step.setOnFailureCommand(CommandType.RELEASE_STOCK);
+        step.setSaga(saga);
+        saga.getSteps().add(step);
+        return saga;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.orchestrator.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HierarchicalTimingWheelTest {
+    //10 ms ticks, 4 buckets and 2 levels: level 0 spans 4 ticks, level 1 spans 16 ticks (160 ms)
+    private final HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(10, 4, 2, 0);
+
+    @Test
+    void firesOnTheTickOfItsDeadline() {
+        wheel.add("a", 25);
+
+        assertThat(wheel.advance(20)).isEmpty();
+        assertThat(wheel.advance(30)).containsExactly(new HierarchicalTimingWheel.Expired("a", 25));
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void cascadesFromTheUpperLevel() {
+        wheel.add("a", 100);
+        wheel.add("b", 130);
+
+        assertThat(wheel.advance(90)).isEmpty();
+        assertThat(ids(wheel.advance(100))).containsExactly("a");
+        assertThat(wheel.advance(120)).isEmpty();
+        assertThat(ids(wheel.advance(130))).containsExactly("b");
+    }
+
+    @Test
+    void parksDeadlinesBeyondTheTopLevelUntilTheyComeInRange() {
+        wheel.add("far", 500);
+
+        //Re-parked at every pass of the top level, never fired early
+        for (long now = 10; now < 500; now += 10) {
+            assertThat(wheel.advance(now)).isEmpty();
+        }
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(ids(wheel.advance(500))).containsExactly("far");
+    }
+
+    @Test
+    void advanceOverManyTicksAtOnce() {
+        wheel.add("near", 30);
+        wheel.add("mid", 150);
+        wheel.add("far", 700);
+
+        assertThat(ids(wheel.advance(1_000))).containsExactly("near", "mid", "far");
+    }
+
+    @Test
+    void deadlineAlreadyDueFiresOnTheNextTick() {
+        HierarchicalTimingWheel started = new HierarchicalTimingWheel(10, 4, 2, 1_000);
+        started.add("late", 500);
+
+        assertThat(started.advance(1_000)).isEmpty();
+        assertThat(started.advance(1_010)).containsExactly(new HierarchicalTimingWheel.Expired("late", 500));
+    }
+
+    @Test
+    void addReplacesThePreviousDeadline() {
+        wheel.add("a", 100);
+        wheel.add("a", 300);
+
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.advance(290)).isEmpty();
+        assertThat(wheel.advance(300)).containsExactly(new HierarchicalTimingWheel.Expired("a", 300));
+    }
+
+    @Test
+    void cancelledEntryNeverFires() {
+        wheel.add("a", 50);
+        wheel.add("b", 500);
+
+        assertThat(wheel.cancel("a")).isTrue();
+        assertThat(wheel.cancel("b")).isTrue();
+        assertThat(wheel.cancel("a")).isFalse();
+        assertThat(wheel.advance(1_000)).isEmpty();
+    }
+
+    @Test
+    void drainAllEmptiesTheWheel() {
+        wheel.add("a", 50);
+        wheel.add("b", 500);
+
+        assertThat(ids(wheel.drainAll())).containsExactlyInAnyOrder("a", "b");
+        assertThat(wheel.size()).isZero();
+        assertThat(wheel.advance(1_000)).isEmpty();
+    }
+
+    private static List<String> ids(List<HierarchicalTimingWheel.Expired> expired) {
+        return expired.stream().map(HierarchicalTimingWheel.Expired::id).toList();
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.orchestrator.scheduling;
+
+import com.example.common.messaging.enums.CommandType;
+import com.example.common.messaging.enums.EventType;
+import com.example.common.messaging.model.BaseCommand;
+import com.example.common.statics.KafkaNames;
+import com.example.common.statics.SagaConstants;
+import com.example.orchestrator.dao.OutBoxDao;
+import com.example.orchestrator.entity.OutBoxEntity;
+import com.example.orchestrator.messaging.SagaCommandPublisher;
+import com.example.orchestrator.service.SagaInstanceService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OutBoxRelayTest {
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private OutBoxDao dao;
+    private SagaCommandPublisher commandPublisher;
+    private SagaInstanceService sagaInstanceService;
+    private PlatformTransactionManager transactionManager;
+    private OutBoxRelay relay;
+    private OutBoxEntity entity;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dao = mock(OutBoxDao.class);
+        commandPublisher = mock(SagaCommandPublisher.class);
+        sagaInstanceService = mock(SagaInstanceService.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        //Outcomes are applied right away, on the thread completing the send
+        relay = new OutBoxRelay(dao, commandPublisher, sagaInstanceService,
+                new TransactionTemplate(transactionManager), objectMapper, new SyncTaskExecutor(),
+                new SimpleMeterRegistry());
+
+        BaseCommand command = new BaseCommand("order-1", CommandType.RESERVE_STOCK, null, "saga-1", "instance-1");
+        entity = new OutBoxEntity();
+        entity.setId("outbox-1");
+        entity.setTopic(KafkaNames.INVENTORY_COMMANDS);
+        entity.setAggregateId("order-1");
+        entity.setTriggerEvent(EventType.ORDER_CREATED);
+        entity.setCommand(objectMapper.writeValueAsString(command));
+        when(dao.findDue(any(), any())).thenReturn(List.of(entity), List.of());
+        when(dao.findAllById(any())).thenReturn(List.of(entity));
+    }
+
+    @Test
+    void sendsOnceTheClaimIsCommittedAndDeletesTheRowOnAck() {
+        CompletableFuture<SendResult<String, BaseCommand>> ack = new CompletableFuture<>();
+        when(commandPublisher.send(eq(KafkaNames.INVENTORY_COMMANDS), any())).thenReturn(ack);
+
+        relay.pollOutBox();
+
+        InOrder inOrder = inOrder(transactionManager, commandPublisher);
+        inOrder.verify(transactionManager).commit(any(TransactionStatus.class));
+        inOrder.verify(commandPublisher).send(eq(KafkaNames.INVENTORY_COMMANDS), any());
+        assertThat(entity.getLeaseUntil())
+                .isAfter(LocalDateTime.now().plusSeconds(SagaConstants.DELIVERY_TIMEOUT_MS / 1_000));
+        verify(dao, never()).deleteAllByIdInBatch(any());
+
+        ack.complete(null);
+
+        verify(dao).deleteAllByIdInBatch(List.of("outbox-1"));
+        verify(sagaInstanceService, never()).onProducerRetryExhausted(any(), any());
+    }
+
+    @Test
+    void failedSendIsRetriedAfterTheIntervalThenFailsTheSaga() {
+        when(commandPublisher.send(any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        relay.pollOutBox();
+
+        assertThat(entity.getAttempts()).isEqualTo((short) 1);
+        assertThat(entity.getLastError()).isEqualTo("Send failed");
+        assertThat(entity.getLeaseUntil()).isBefore(LocalDateTime.now().plusSeconds(2));
+        verify(sagaInstanceService, never()).onProducerRetryExhausted(any(), any());
+
+        for (int attempt = 2; attempt <= SagaConstants.RETRY_THRESHOLD; attempt++) {
+            when(dao.findDue(any(), any())).thenReturn(List.of(entity), List.of());
+            relay.pollOutBox();
+        }
+
+        verify(dao).deleteAllInBatch(List.of(entity));
+        verify(sagaInstanceService).onProducerRetryExhausted(
+                argThat(command -> command.getAggregateId().equals("order-1")), eq(EventType.ORDER_CREATED));
+        verify(dao, never()).deleteAllByIdInBatch(any());
+    }
+}
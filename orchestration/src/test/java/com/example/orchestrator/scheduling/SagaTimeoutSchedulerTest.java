@@ -0,0 +1,117 @@
+package com.example.orchestrator.scheduling;
+
+import com.example.common.statics.SagaConstants;
+import com.example.orchestrator.dto.PendingTimeout;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SagaTimeoutSchedulerTest {
+    private RedisTemplate<String, String> redisTemplate;
+    private TimeoutShardManager shardManager;
+    private SagaTimeoutScheduler scheduler;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        shardManager = mock(TimeoutShardManager.class);
+        when(shardManager.getOwnedShards()).thenReturn(Set.of(1));
+        scheduler = new SagaTimeoutScheduler(redisTemplate, shardManager, 0, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.stop();
+    }
+
+    @Test
+    void pollReschedulesItselfAtTheNextDueTimeout() {
+        //Nothing expired, the next timeout of the shard is due in 50 ms
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyString(), anyString(), anyString()))
+                .thenAnswer(invocation -> List.of(String.valueOf(System.currentTimeMillis() + 50)));
+
+        scheduler.start();
+
+        verify(redisTemplate, timeout(1_000).atLeast(3))
+                .execute(any(RedisScript.class), anyList(), anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void pollAgainRightAwayWhileThereIsBacklog() {
+        List<String> fullBatch = new ArrayList<>();
+        fullBatch.add("");
+        for (int i = 0; i < SagaConstants.TIMEOUT_POLL_BATCH_SIZE; i++) {
+            fullBatch.add("event-" + i);
+        }
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyString(), anyString(), anyString()))
+                .thenReturn(fullBatch, List.of(""));
+        when(redisTemplate.opsForZSet()).thenReturn(mock(ZSetOperations.class));
+        scheduler.registerTimeoutCallback(eventId -> {
+        });
+
+        scheduler.start();
+
+        //Well before the 2 s idle interval
+        verify(redisTemplate, timeout(500).times(2))
+                .execute(any(RedisScript.class), anyList(), anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void rearmOnlyTheTimeoutsOfOwnedShards() {
+        List<String> shard1 = List.of("timeout:events:1", "timeout:inflight:1");
+        when(shardManager.shardOf("lost")).thenReturn(1);
+        when(shardManager.shardOf("not-owned")).thenReturn(2);
+        when(redisTemplate.execute(any(RedisScript.class), eq(shard1), any(Object[].class))).thenReturn(1L);
+        scheduler.start();
+
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(1);
+        scheduler.rearm(Set.of(1, 2), List.of(new PendingTimeout("lost", expiresAt),
+                new PendingTimeout("not-owned", expiresAt)));
+
+        String score = String.valueOf(expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        verify(redisTemplate).execute(any(RedisScript.class), eq(shard1), eq(score), eq("lost"));
+        verify(redisTemplate, never()).execute(any(RedisScript.class),
+                eq(List.of("timeout:events:2", "timeout:inflight:2")), any(Object[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recoverAcquiredShardsAfterTheCheckpointWindow() {
+        ArgumentCaptor<Consumer<Set<Integer>>> listener = ArgumentCaptor.forClass(Consumer.class);
+        TimeoutShardManager manager = mock(TimeoutShardManager.class);
+        SagaTimeoutScheduler windowed = new SagaTimeoutScheduler(redisTemplate, manager, 50, new SimpleMeterRegistry());
+        verify(manager).onShardsAcquired(listener.capture());
+        BiConsumer<Set<Integer>, LocalDateTime> recovery = mock(BiConsumer.class);
+        windowed.registerRecoveryCallback(recovery);
+        windowed.start();
+        try {
+            LocalDateTime acquiredAt = LocalDateTime.now();
+            listener.getValue().accept(Set.of(3));
+
+            verify(recovery, after(50).never()).accept(any(), any());
+            ArgumentCaptor<LocalDateTime> createdBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+            verify(recovery, timeout(1_000)).accept(eq(Set.of(3)), createdBefore.capture());
+            assertThat(createdBefore.getValue()).isAfterOrEqualTo(acquiredAt);
+        } finally {
+            windowed.stop();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.orchestrator.scheduling;
+
+import com.example.common.statics.SagaConstants;
+import com.example.orchestrator.dto.PendingTimeout;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the claim, requeue and re-arm scripts of {@link SagaTimeoutScheduler} against an embedded Redis.
+ * The scheduler is stopped before each test, so its polls don't reschedule themselves and the test drives them.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SagaTimeoutScriptsTest {
+    private static final String PENDING = "timeout:events:1";
+    private static final String INFLIGHT = "timeout:inflight:1";
+    private static final String LEGACY = "timeout:events";
+
+    private RedisServer redisServer;
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+    private TimeoutShardManager shardManager;
+    private SimpleMeterRegistry meterRegistry;
+    private SagaTimeoutScheduler scheduler;
+    private final List<String> fired = new ArrayList<>();
+
+    @BeforeAll
+    void startRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.execute(connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        }, true);
+        shardManager = mock(TimeoutShardManager.class);
+        when(shardManager.getOwnedShards()).thenReturn(Set.of(1));
+        when(shardManager.shardOf(anyString())).thenReturn(1);
+        meterRegistry = new SimpleMeterRegistry();
+        scheduler = new SagaTimeoutScheduler(redisTemplate, shardManager, 0, meterRegistry);
+        scheduler.stop();
+        fired.clear();
+        scheduler.registerTimeoutCallback(fired::add);
+    }
+
+    @Test
+    void claimFiresTheExpiredIdsAndAcknowledgesThem() {
+        long now = System.currentTimeMillis();
+        redisTemplate.opsForZSet().add(PENDING, "expired", now - 1_000);
+        redisTemplate.opsForZSet().add(PENDING, "later", now + 60_000);
+
+        scheduler.pollExpiredTimeouts();
+
+        assertThat(fired).containsExactly("expired");
+        assertThat(redisTemplate.opsForZSet().range(PENDING, 0, -1)).containsExactly("later");
+        assertThat(redisTemplate.opsForZSet().zCard(INFLIGHT)).isZero();
+        assertThat(meterRegistry.counter("saga.timeout.acked").count()).isEqualTo(1);
+    }
+
+    @Test
+    void claimStopsAtTheBatchSize() {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i <= SagaConstants.TIMEOUT_POLL_BATCH_SIZE; i++) {
+            redisTemplate.opsForZSet().add(PENDING, "event-" + i, now - 1_000 + i);
+        }
+
+        scheduler.pollExpiredTimeouts();
+
+        assertThat(fired).hasSize(SagaConstants.TIMEOUT_POLL_BATCH_SIZE);
+        assertThat(redisTemplate.opsForZSet().range(PENDING, 0, -1))
+                .containsExactly("event-" + SagaConstants.TIMEOUT_POLL_BATCH_SIZE);
+    }
+
+    @Test
+    void failedHandlerKeepsTheLease() {
+        long now = System.currentTimeMillis();
+        redisTemplate.opsForZSet().add(PENDING, "expired", now - 1_000);
+        scheduler.registerTimeoutCallback(eventId -> {
+            throw new IllegalStateException("handler failed");
+        });
+
+        scheduler.pollExpiredTimeouts();
+
+        assertThat(redisTemplate.opsForZSet().zCard(PENDING)).isZero();
+        assertThat(redisTemplate.opsForZSet().score(INFLIGHT, "expired"))
+                .isGreaterThanOrEqualTo((double) now + SagaConstants.TIMEOUT_CLAIM_LEASE_MS);
+        assertThat(meterRegistry.counter("saga.timeout.acked").count()).isZero();
+    }
+
+    @Test
+    void expiredLeaseIsRequeuedAndFiredAgain() {
+        long now = System.currentTimeMillis();
+        redisTemplate.opsForZSet().add(INFLIGHT, "crashed", now - 1);
+        redisTemplate.opsForZSet().add(INFLIGHT, "leased", now + SagaConstants.TIMEOUT_CLAIM_LEASE_MS);
+
+        scheduler.reapExpiredLeases();
+
+        assertThat(redisTemplate.opsForZSet().range(PENDING, 0, -1)).containsExactly("crashed");
+        assertThat(redisTemplate.opsForZSet().range(INFLIGHT, 0, -1)).containsExactly("leased");
+        assertThat(meterRegistry.counter("saga.timeout.requeued").count()).isEqualTo(1);
+
+        scheduler.pollExpiredTimeouts();
+
+        assertThat(fired).containsExactly("crashed");
+        assertThat(redisTemplate.opsForZSet().range(INFLIGHT, 0, -1)).containsExactly("leased");
+    }
+
+    @Test
+    void cancelRemovesTheTimeoutsScheduledBeforeSharding() {
+        when(shardManager.getOwnedShards()).thenReturn(Set.of(0));
+        redisTemplate.opsForZSet().add(LEGACY, "cancelled", System.currentTimeMillis() - 1_000);
+
+        scheduler.cancelTimeout("cancelled");
+        scheduler.pollExpiredTimeouts();
+
+        assertThat(fired).isEmpty();
+        assertThat(redisTemplate.opsForZSet().zCard(LEGACY)).isZero();
+    }
+
+    @Test
+    void rearmSkipsThePendingAndInFlightIds() {
+        long now = System.currentTimeMillis();
+        redisTemplate.opsForZSet().add(PENDING, "pending", now + 1_000);
+        redisTemplate.opsForZSet().add(INFLIGHT, "inflight", now + SagaConstants.TIMEOUT_CLAIM_LEASE_MS);
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(1);
+
+        scheduler.rearm(Set.of(1), List.of(new PendingTimeout("pending", expiresAt),
+                new PendingTimeout("inflight", expiresAt), new PendingTimeout("lost", expiresAt)));
+
+        assertThat(redisTemplate.opsForZSet().score(PENDING, "pending")).isEqualTo((double) now + 1_000);
+        assertThat(redisTemplate.opsForZSet().score(PENDING, "inflight")).isNull();
+        assertThat(redisTemplate.opsForZSet().score(PENDING, "lost"))
+                .isEqualTo((double) expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        assertThat(meterRegistry.counter("saga.timeout.rearmed").count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.orchestrator.service;
+
+import com.example.common.enums.ExecutionState;
+import com.example.common.enums.StepState;
+import com.example.common.messaging.enums.CommandType;
+import com.example.common.messaging.enums.EventType;
+import com.example.common.messaging.model.BaseEvent;
+import com.example.common.statics.KafkaNames;
+import com.example.orchestrator.dao.SagaInstanceDao;
+import com.example.orchestrator.dto.SagaDefinition;
+import com.example.orchestrator.entity.SagaEntity;
+import com.example.orchestrator.entity.SagaInstanceEntity;
+import com.example.orchestrator.entity.SagaStepEntity;
+import com.example.orchestrator.entity.SagaStepInstanceEntity;
+import com.example.orchestrator.metrics.SagaMetrics;
+import com.example.orchestrator.metrics.StepLatencyTracker;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Step instance bookkeeping of {@link SagaInstanceService}: rows are created at dispatch, completed by the reply
+ * and the step a saga fails on is recorded in {@link StepLatencyTracker} with its outcome.
+ */
+class SagaInstanceServiceStepTest {
+    private static final JsonNode PAYLOAD = JsonNodeFactory.instance.objectNode().put("stockId", "700");
+    private final StepLatencyTracker stepLatencyTracker = new StepLatencyTracker(new SimpleMeterRegistry());
+    private SagaInstanceService service;
+    private SagaDefinition saga;
+    private SagaInstanceEntity instance;
+
+    @BeforeEach
+    void setUp() {
+        saga = new SagaDefinition(saga());
+        instance = new SagaInstanceEntity(saga.saga(), new BaseEvent("order-1", EventType.ORDER_CREATED, PAYLOAD));
+        instance.setId("instance-1");
+
+        SagaDefinitionRegistry definitionRegistry = mock(SagaDefinitionRegistry.class);
+        when(definitionRegistry.getById("saga-1")).thenReturn(saga);
+        SagaInstanceDao dao = mock(SagaInstanceDao.class);
+        when(dao.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        SagaInstanceCache instanceCache = mock(SagaInstanceCache.class);
+        when(instanceCache.findWithSteps("instance-1")).thenReturn(Optional.of(instance));
+
+        service = new SagaInstanceService(definitionRegistry, mock(ApplicationEventPublisher.class), dao,
+                instanceCache, mock(SagaTimeoutService.class), mock(OutBoxService.class),
+                mock(IdempotencyService.class), mock(SagaMetrics.class), stepLatencyTracker);
+    }
+
+    @Test
+    void stepInstanceIsCreatedAtDispatchAndCompletedByTheReply() {
+        service.advice(new BaseEvent("order-1", EventType.ORDER_CREATED, PAYLOAD), true, saga, instance);
+
+        assertThat(instance.getSteps()).singleElement().satisfies(step -> {
+            assertThat(step.getStepOrder()).isEqualTo(1);
+            assertThat(step.getStatus()).isEqualTo(StepState.IN_PROGRESS);
+            assertThat(step.getDispatchedAt()).isNotNull();
+            assertThat(step.getCompletedAt()).isNull();
+        });
+        assertThat(stepLatencyTracker.snapshot()).isEmpty();
+
+        service.advice(reply(EventType.STOCK_RESERVED), false, saga, instance);
+
+        List<SagaStepInstanceEntity> steps = sortedSteps();
+        assertThat(steps).extracting(SagaStepInstanceEntity::getStatus)
+                .containsExactly(StepState.COMPLETED, StepState.IN_PROGRESS);
+        assertThat(steps.get(0).getEventReceived()).isEqualTo(EventType.STOCK_RESERVED);
+        assertThat(steps.get(0).getRetryCount()).isEqualTo((short) 1);
+        assertThat(steps.get(0).getLatency()).isNotNull();
+        assertThat(stepLatencyTracker.snapshot()).singleElement().satisfies(latency -> {
+            assertThat(latency.stepOrder()).isEqualTo(1);
+            assertThat(latency.outcome()).isEqualTo(SagaMetrics.SUCCESS);
+        });
+    }
+
+    @Test
+    void stepWaitingForItsReplyIsRecordedAsTimedOut() {
+        service.advice(new BaseEvent("order-1", EventType.ORDER_CREATED, PAYLOAD), true, saga, instance);
+        service.advice(reply(EventType.STOCK_RESERVED), false, saga, instance);
+
+        service.onTimeoutOrFailure(reply(EventType.ORDER_CREATED));
+
+        assertThat(instance.getStatus()).isEqualTo(ExecutionState.COMPENSATING);
+        assertThat(sortedSteps()).extracting(SagaStepInstanceEntity::getStatus)
+                .containsExactly(StepState.COMPLETED, StepState.FAILED);
+        assertThat(stepLatencyTracker.snapshot())
+                .extracting(StepLatencyTracker.StepLatency::stepOrder, StepLatencyTracker.StepLatency::outcome)
+                .containsExactly(tuple(1, SagaMetrics.SUCCESS), tuple(2, SagaMetrics.TIMEOUT));
+    }
+
+    @Test
+    void compensationWaitsOnlyForTheRepliedSteps() {
+        service.advice(new BaseEvent("order-1", EventType.ORDER_CREATED, PAYLOAD), true, saga, instance);
+        service.advice(reply(EventType.STOCK_RESERVED), false, saga, instance);
+        service.onTimeoutOrFailure(reply(EventType.ORDER_CREATED));
+
+        service.onCompensatoryEvent(reply(EventType.STOCK_RELEASED));
+
+        //The payment step was never replied, so it has nothing to compensate
+        assertThat(instance.getStatus()).isEqualTo(ExecutionState.FAILED);
+    }
+
+    private BaseEvent reply(EventType eventType) {
+        return new BaseEvent("order-1", eventType, PAYLOAD, "saga-1", "instance-1");
+    }
+
+    private List<SagaStepInstanceEntity> sortedSteps() {
+        return instance.getSteps().stream()
+                .sorted(Comparator.comparing(SagaStepInstanceEntity::getStepOrder))
+                .toList();
+    }
+
+    private static SagaEntity saga() {
+        SagaEntity saga = new SagaEntity();
+        saga.setId("saga-1");
+        saga.setName("OrderFulfillment");
+        saga.setDefinedVersion(1);
+        saga.setTriggerEvent(EventType.ORDER_CREATED);
+        saga.getSteps().add(step(saga, 1, "ReserveStock", CommandType.RESERVE_STOCK, KafkaNames.INVENTORY_COMMANDS,
+                EventType.STOCK_RESERVED, CommandType.RELEASE_STOCK));
+        saga.getSteps().add(step(saga, 2, "ProcessPayment", CommandType.PROCESS_PAYMENT, KafkaNames.PAYMENT_COMMANDS,
+                EventType.PAYMENT_SUCCEEDED, CommandType.REFUND_PAYMENT));
+        return saga;
+    }
+
+    private static SagaStepEntity step(SagaEntity saga, int stepOrder, String name, CommandType commandType,
+                                       String commandTopic, EventType expectedEventType,
+                                       CommandType onFailureCommand) {
+        SagaStepEntity step = new SagaStepEntity();
+        step.setId("step-" + stepOrder);
+        step.setStepOrder(stepOrder);
+        step.setName(name);
+        step.setCommandType(commandType);
+        step.setCommandTopic(commandTopic);
+        step.setExpectedEventType(expectedEventType);
+        step.setOnFailureCommand(onFailureCommand);
+        step.setSaga(saga);
+        return step;
+    }
+}
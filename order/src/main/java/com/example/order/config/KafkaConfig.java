@@ -3,6 +3,10 @@ package com.example.order.config;
 import com.example.common.messaging.model.BaseCommand;
 import com.example.common.statics.KafkaNames;
 import com.example.common.messaging.model.BaseEvent;
+import com.example.common.messaging.serde.SagaMessageDeserializer;
+import com.example.common.messaging.serde.SagaMessageSerializer;
+import com.example.common.messaging.serde.SagaSerdeConfig;
+import com.example.common.statics.SagaConstants;
 import org.apache.kafka.clients.admin.AdminClientConfig;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
@@ -15,20 +19,46 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.*;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
 import java.util.Map;
 
 @Configuration
 public class KafkaConfig {
-    private static final int PARTITIONS = 1;
     private static final short REPLICATION = 1;
 
     @Value(value = "${spring.kafka.bootstrap-servers}")
     private String bootstrapAddress;
 
+    //Same value as the orchestrator, which reads order-events together with the other event topics
+    @Value(value = "${saga.kafka.partitions:1}")
+    private int partitions;
+
+    @Value(value = "${saga.kafka.listener-concurrency:1}")
+    private int concurrency;
+
+    //See SagaSerdeConfig
+    @Value(value = "${saga.kafka.serde.format:json}")
+    private String serdeFormat;
+
+    @Value(value = "${saga.kafka.serde.binary-topics:}")
+    private String binaryTopics;
+
+    //Micro-batching of the order events: a send waits up to linger-ms for a batch of batch-size bytes per
+    //partition, a burst of orders goes out in a few compressed requests
+    @Value(value = "${saga.kafka.producer.linger-ms:5}")
+    private int lingerMs;
+
+    @Value(value = "${saga.kafka.producer.batch-size:65536}")
+    private int batchSize;
+
+    @Value(value = "${saga.kafka.producer.compression-type:lz4}")
+    private String compressionType;
+
+    //Time a send may block for metadata or buffer space before failing
+    @Value(value = "${saga.kafka.producer.max-block-ms:5000}")
+    private int maxBlockMs;
+
     // ====================
     // KafkaAdmin (Topic Creation)
     // ====================
@@ -45,7 +75,7 @@ public class KafkaConfig {
     @Bean
     public NewTopic orderCommandsTopic() {
         return TopicBuilder.name(KafkaNames.ORDER_COMMANDS)
-                .partitions(PARTITIONS)
+                .partitions(partitions)
                 .replicas(REPLICATION)
                 .build();
     }
@@ -56,7 +86,7 @@ public class KafkaConfig {
     @Bean
     public NewTopic orderEventsTopic() {
         return TopicBuilder.name(KafkaNames.ORDER_EVENTS)
-                .partitions(PARTITIONS)
+                .partitions(partitions)
                 .replicas(REPLICATION)
                 .build();
     }
@@ -69,7 +99,19 @@ public class KafkaConfig {
         Map<String, Object> props = new HashMap<>();
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapAddress);
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, SagaMessageSerializer.class);
+        props.put(SagaSerdeConfig.VALUE_FORMAT, serdeFormat);
+        props.put(SagaSerdeConfig.BINARY_TOPICS, binaryTopics);
+
+        //An order is acknowledged to the client once all in-sync replicas have its event
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        props.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlockMs);
+        props.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, SagaConstants.REQUEST_TIMEOUT_MS);
+        props.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, SagaConstants.DELIVERY_TIMEOUT_MS);
         return new DefaultKafkaProducerFactory<>(props);
     }
 
@@ -83,8 +125,8 @@ public class KafkaConfig {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapAddress);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
-        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, BaseCommand.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, SagaMessageDeserializer.class);
+        props.put(SagaSerdeConfig.VALUE_TYPE, BaseCommand.class);
         return new DefaultKafkaConsumerFactory<>(props);
     }
 
@@ -93,6 +135,7 @@ public class KafkaConfig {
         ConcurrentKafkaListenerContainerFactory<String, BaseCommand> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        factory.setConcurrency(concurrency);
         return factory;
     }
 }
@@ -1,18 +1,66 @@
 package com.example.order.config;
 
+import com.example.order.messaging.OutboundSessionQueues;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    //External STOMP broker (e.g. ActiveMQ) instead of the in-heap simple broker, shared by all the order nodes
+    @Value(value = "${saga.websocket.broker-relay.enabled:false}")
+    private boolean brokerRelay;
+
+    @Value(value = "${saga.websocket.broker-relay.host:localhost}")
+    private String relayHost;
+
+    @Value(value = "${saga.websocket.broker-relay.port:61613}")
+    private int relayPort;
+
+    @Value(value = "${saga.websocket.broker-relay.login:guest}")
+    private String relayLogin;
+
+    @Value(value = "${saga.websocket.broker-relay.passcode:guest}")
+    private String relayPasscode;
+
+    //Per session: bytes buffered while a send is in progress and time a send may take, the session is closed
+    //beyond either
+    @Value(value = "${saga.websocket.send-buffer-size-limit:65536}")
+    private int sendBufferSizeLimit;
+
+    @Value(value = "${saga.websocket.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    //Messages waiting for the outbound threads, across all sessions; sends beyond it are rejected
+    @Value(value = "${saga.websocket.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
+    private final OutboundSessionQueues outboundSessionQueues;
+
+    public WebSocketConfig(OutboundSessionQueues outboundSessionQueues) {
+        this.outboundSessionQueues = outboundSessionQueues;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
-        registry.enableSimpleBroker("/topic"); // messages go to clients
+        if (brokerRelay) {
+            registry.enableStompBrokerRelay("/topic")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode);
+        } else {
+            registry.enableSimpleBroker("/topic"); // messages go to clients
+        }
         //registry.setApplicationDestinationPrefixes("/app"); // for sending from client
     }
 
@@ -20,5 +68,20 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws").setAllowedOriginPatterns("*").withSockJS();
     }
-}
 
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setSendTimeLimit(sendTimeLimitMs);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        int threads = Runtime.getRuntime().availableProcessors() * 2;
+        registration.taskExecutor()
+                .corePoolSize(threads)
+                .maxPoolSize(threads)
+                .queueCapacity(outboundQueueCapacity);
+        registration.interceptors(outboundSessionQueues);
+    }
+}
@@ -1,17 +1,21 @@
 package com.example.order.controller;
 
 import com.example.order.dto.OrderIn;
+import com.example.order.exception.OrderIntakeSaturatedException;
 import com.example.order.service.OrderService;
+import com.example.order.service.OrderStatusService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping(value = "/api/orders", consumes = MediaType.APPLICATION_JSON_VALUE,
@@ -19,10 +23,46 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class OrderController {
     private final OrderService service;
+    private final OrderStatusService statusService;
 
+    /**
+     * 202 once the broker acknowledged the order, 503 if it could not be sent. The request thread is released
+     * while waiting.
+     */
     @PostMapping
-    public ResponseEntity<Map<String, String>> create(@RequestBody OrderIn model) {
-        String orderId = service.create(model);
-        return ResponseEntity.accepted().body(Collections.singletonMap("id", orderId));
+    public CompletableFuture<ResponseEntity<Map<String, String>>> create(@RequestBody OrderIn model) {
+        return service.create(model)
+                .thenApply(orderId -> ResponseEntity.accepted().body(Collections.singletonMap("id", orderId)))
+                .exceptionally(ex -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+
+    @ExceptionHandler(OrderIntakeSaturatedException.class)
+    public ResponseEntity<Map<String, String>> saturated(OrderIntakeSaturatedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Collections.singletonMap("error", e.getMessage()));
+    }
+
+    /**
+     * Latest status of the order (ETag is its version), or with {@code version} the first status newer than it,
+     * waited for up to the long-poll timeout (304 then).
+     */
+    @GetMapping(value = "/{id}/status", consumes = MediaType.ALL_VALUE)
+    public DeferredResult<ResponseEntity<String>> status(@PathVariable String id,
+                                                         @RequestParam(required = false) Long version) {
+        if (version != null) {
+            return statusService.poll(id, version);
+        }
+        DeferredResult<ResponseEntity<String>> result = new DeferredResult<>();
+        result.setResult(statusService.snapshot(id)
+                .map(OrderStatusService::toResponse)
+                .orElseGet(() -> ResponseEntity.notFound().build()));
+        return result;
+    }
+
+    @GetMapping(value = "/{id}/status", consumes = MediaType.ALL_VALUE, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStatus(@PathVariable String id,
+                                   @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return statusService.stream(id, lastEventId != null ? lastEventId : -1);
     }
 }
@@ -1,15 +1,32 @@
 package com.example.order.dto;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
-public record OrderIn(String stockId, int quantity) {
+import java.util.List;
+
+/**
+ * Either a single {@code stockId}/{@code quantity} or the {@code items} of a multi-line order.
+ */
+public record OrderIn(String stockId, int quantity, List<Item> items) {
+
+    public record Item(String stockId, int quantity) {
+    }
 
     public ObjectNode toSagaPayload(ObjectMapper objectMapper) {
-        return objectMapper.createObjectNode()
-                .put("stockId", stockId)
-                .put("quantity", quantity);
-                //.put("startDate", startDate.format(DateTimeFormatter.ISO_DATE))
-                //.put("endDate", endDate.format(DateTimeFormatter.ISO_DATE));
+        if (items == null || items.isEmpty()) {
+            return objectMapper.createObjectNode()
+                    .put("stockId", stockId)
+                    .put("quantity", quantity);
+                    //.put("startDate", startDate.format(DateTimeFormatter.ISO_DATE))
+                    //.put("endDate", endDate.format(DateTimeFormatter.ISO_DATE));
+        }
+        ObjectNode payload = objectMapper.createObjectNode();
+        ArrayNode lines = payload.putArray("items");
+        items.forEach(item -> lines.addObject()
+                .put("stockId", item.stockId())
+                .put("quantity", item.quantity()));
+        return payload;
     }
 }
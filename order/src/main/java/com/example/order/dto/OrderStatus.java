@@ -0,0 +1,7 @@
+package com.example.order.dto;
+
+/**
+ * Latest saga status of an order, as stored in its snapshot: the status JSON is kept unparsed.
+ */
+public record OrderStatus(long version, String status) {
+}
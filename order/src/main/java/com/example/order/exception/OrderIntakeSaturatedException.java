@@ -0,0 +1,8 @@
+package com.example.order.exception;
+
+public class OrderIntakeSaturatedException extends RuntimeException {
+
+    public OrderIntakeSaturatedException(String message) {
+        super(message);
+    }
+}
@@ -5,8 +5,11 @@ import com.example.common.messaging.model.BaseEvent;
 import com.example.common.statics.KafkaNames;
 import lombok.RequiredArgsConstructor;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+
 @Component
 @RequiredArgsConstructor
 public class OrderEventPublisher implements EventPublisher {
@@ -14,7 +17,12 @@ public class OrderEventPublisher implements EventPublisher {
 
     @Override
     public void publish(String topic, BaseEvent event) {
-        kafkaTemplate.send(topic, event);
+        send(topic, event);
+    }
+
+    //Completes when the broker acknowledged the event (acks=all), or fails after the delivery timeout
+    public CompletableFuture<SendResult<String, BaseEvent>> send(String topic, BaseEvent event) {
+        return kafkaTemplate.send(topic, event.getAggregateId(), event);
     }
 
     public void publishEvent(BaseEvent event) {
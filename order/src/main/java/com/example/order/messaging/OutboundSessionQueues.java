@@ -0,0 +1,123 @@
+package com.example.order.messaging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Interceptor of the client outbound channel that bounds the messages queued for each WebSocket session.
+ * A session with saga.websocket.outbound.session-queue-limit messages waiting is a slow consumer: with the
+ * {@code drop} policy its new status messages are parked, only the latest per destination (every status is a
+ * full snapshot), and sent once its queue drains, so the final status of an order always reaches the client.
+ * With {@code terminate} they are kept and the send buffer limit of WebSocketConfig closes the session.
+ */
+@Component
+public class OutboundSessionQueues implements ExecutorChannelInterceptor {
+    private static final Logger logger = LoggerFactory.getLogger(OutboundSessionQueues.class);
+    public static final String DROP = "drop";
+
+    private final int sessionQueueLimit;
+    private final boolean drop;
+    //sessionId -> messages accepted and not yet handed to the session
+    private final Map<String, Integer> queued = new ConcurrentHashMap<>();
+    //sessionId -> destination -> latest status not queued yet, changed under the lock of the session in queued
+    private final Map<String, Map<String, Message<?>>> parked = new ConcurrentHashMap<>();
+    private final AtomicLong depth = new AtomicLong();
+    private final Counter dropped;
+
+    public OutboundSessionQueues(@Value("${saga.websocket.outbound.session-queue-limit:100}") int sessionQueueLimit,
+                                 @Value("${saga.websocket.slow-consumer-policy:drop}") String slowConsumerPolicy,
+                                 MeterRegistry meterRegistry) {
+        this.sessionQueueLimit = sessionQueueLimit;
+        this.drop = DROP.equalsIgnoreCase(slowConsumerPolicy);
+        this.dropped = meterRegistry.counter("order.websocket.outbound.dropped");
+        Gauge.builder("order.websocket.outbound.queued", depth, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("order.websocket.outbound.sessions", queued, Map::size).register(meterRegistry);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        String sessionId = statusSessionId(message);
+        if (sessionId == null) {
+            return message;
+        }
+        boolean[] accepted = {true};
+        boolean[] superseded = {false};
+        queued.compute(sessionId, (id, count) -> {
+            int current = count != null ? count : 0;
+            if (drop && current >= sessionQueueLimit) {
+                accepted[0] = false;
+                String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+                superseded[0] = parked.computeIfAbsent(id, s -> new HashMap<>()).put(destination, message) != null;
+                return count;
+            }
+            return current + 1;
+        });
+        if (!accepted[0]) {
+            if (superseded[0]) {
+                dropped.increment();
+            }
+            logger.debug("Slow consumer {}, status parked", sessionId);
+            return null;
+        }
+        depth.incrementAndGet();
+        return message;
+    }
+
+    //Rejected by the outbound executor (queue full), the message will not be handled
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        if (ex != null) {
+            release(message, channel);
+        }
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler,
+                                    Exception ex) {
+        release(message, channel);
+    }
+
+    private void release(Message<?> message, MessageChannel channel) {
+        String sessionId = statusSessionId(message);
+        if (sessionId == null) {
+            return;
+        }
+        List<Message<?>> resend = new ArrayList<>();
+        queued.compute(sessionId, (id, count) -> {
+            Map<String, Message<?>> latest = parked.remove(id);
+            if (latest != null) {
+                resend.addAll(latest.values());
+            }
+            return count == null || count <= 1 ? null : count - 1;
+        });
+        depth.decrementAndGet();
+        //Queued again through preSend, parked again if the session is still behind
+        resend.forEach(channel::send);
+    }
+
+    //Only the broker messages (statuses) are bounded, never the CONNECTED/ERROR frames
+    private static String statusSessionId(Message<?> message) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+            return null;
+        }
+        return SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+    }
+}
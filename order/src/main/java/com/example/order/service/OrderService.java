@@ -3,25 +3,51 @@ package com.example.order.service;
 import com.example.common.messaging.enums.EventType;
 import com.example.common.messaging.model.BaseEvent;
 import com.example.common.statics.KafkaNames;
+import com.example.common.utils.UuidV7;
 import com.example.order.dto.OrderIn;
+import com.example.order.exception.OrderIntakeSaturatedException;
 import com.example.order.messaging.OrderEventPublisher;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
 
+/**
+ * Order intake: an order is accepted once its {@code ORDER_CREATED} event is acknowledged by the broker. At most
+ * saga.order.intake.max-in-flight events await their acknowledgement, new orders are rejected beyond it
+ * ({@link OrderIntakeSaturatedException}) instead of piling up in the producer buffer.
+ */
 @Service
-@Transactional(readOnly = true)
-@RequiredArgsConstructor
 public class OrderService {
+    private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
     private final OrderEventPublisher publisher;
     private final ObjectMapper objectMapper;
+    private final Semaphore inFlight;
+    private final Counter rejected;
     ///private final Tracer tracer;
 
-    @Transactional
-    public String create(OrderIn model) {
+    public OrderService(OrderEventPublisher publisher, ObjectMapper objectMapper,
+                        @Value("${saga.order.intake.max-in-flight:10000}") int maxInFlight,
+                        MeterRegistry meterRegistry) {
+        this.publisher = publisher;
+        this.objectMapper = objectMapper;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.rejected = meterRegistry.counter("order.intake.rejected");
+        Gauge.builder("order.intake.in-flight", inFlight, permits -> maxInFlight - permits.availablePermits())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Completes with the order id when the broker acknowledged the event, exceptionally when the send failed.
+     */
+    public CompletableFuture<String> create(OrderIn model) {
         /*Span span = tracer.nextSpan().name(EventType.ORDER_CREATED.toString()).start();
         try (Tracer.SpanInScope ignored = tracer.withSpan(span)){
 
@@ -29,9 +55,25 @@ public class OrderService {
             span.end();
         }*/
 
-        String orderId = UUID.randomUUID().toString();
-        BaseEvent orderCreated = new BaseEvent(orderId, EventType.ORDER_CREATED, model.toSagaPayload(objectMapper));
-        publisher.publish(KafkaNames.ORDER_EVENTS, orderCreated);
-        return orderId;
+        if (!inFlight.tryAcquire()) {
+            rejected.increment();
+            throw new OrderIntakeSaturatedException("Too many orders awaiting acknowledgement");
+        }
+        try {
+            String orderId = UuidV7.nextString();
+            BaseEvent orderCreated = new BaseEvent(orderId, EventType.ORDER_CREATED, model.toSagaPayload(objectMapper));
+            return publisher.send(KafkaNames.ORDER_EVENTS, orderCreated)
+                    .whenComplete((result, ex) -> {
+                        inFlight.release();
+                        if (ex != null) {
+                            logger.error("Order {} not acknowledged: {}", orderId, ex.getMessage());
+                        }
+                    })
+                    .thenApply(result -> orderId);
+        } catch (RuntimeException e) {
+            //Not handed to the producer (serialization, metadata or buffer wait timeout)
+            inFlight.release();
+            throw e;
+        }
     }
 }
@@ -0,0 +1,32 @@
+package com.example.order.service;
+
+import com.example.order.dto.OrderStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Local listeners of the statuses received from Redis, per aggregate (status streams and long polls).
+ */
+@Component
+public class OrderStatusListeners {
+    private final Map<String, Set<Consumer<OrderStatus>>> listeners = new ConcurrentHashMap<>();
+
+    public void add(String aggregateId, Consumer<OrderStatus> listener) {
+        listeners.computeIfAbsent(aggregateId, id -> ConcurrentHashMap.newKeySet()).add(listener);
+    }
+
+    public void remove(String aggregateId, Consumer<OrderStatus> listener) {
+        listeners.computeIfPresent(aggregateId, (id, set) -> set.remove(listener) && set.isEmpty() ? null : set);
+    }
+
+    public void notify(String aggregateId, OrderStatus status) {
+        Set<Consumer<OrderStatus>> set = listeners.get(aggregateId);
+        if (set != null) {
+            set.forEach(listener -> listener.accept(status));
+        }
+    }
+}
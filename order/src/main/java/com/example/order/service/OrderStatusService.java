@@ -0,0 +1,109 @@
+package com.example.order.service;
+
+import com.example.common.statics.RedisChannelNames;
+import com.example.common.statics.SagaConstants;
+import com.example.order.dto.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Saga status of an order without a WebSocket: the snapshot stored by the orchestrator, then the statuses
+ * received from Redis, streamed (SSE) or awaited (long poll on the snapshot version). Neither holds a servlet
+ * thread while waiting.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderStatusService {
+    private static final List<Object> SNAPSHOT_FIELDS =
+            List.of(RedisChannelNames.SNAPSHOT_VERSION, RedisChannelNames.SNAPSHOT_STATUS);
+    private final StringRedisTemplate redisTemplate;
+    private final StatusSubscriptionRegistry subscriptionRegistry;
+    private final OrderStatusListeners statusListeners;
+
+    public Optional<OrderStatus> snapshot(String aggregateId) {
+        List<Object> values = redisTemplate.opsForHash()
+                .multiGet(RedisChannelNames.orderStatusSnapshot(aggregateId), SNAPSHOT_FIELDS);
+        if (values.get(0) == null || values.get(1) == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new OrderStatus(Long.parseLong((String) values.get(0)), (String) values.get(1)));
+    }
+
+    /**
+     * Streams the statuses newer than lastVersion (the Last-Event-ID of a reconnecting client), starting with
+     * the snapshot.
+     */
+    public SseEmitter stream(String aggregateId, long lastVersion) {
+        SseEmitter emitter = new SseEmitter(SagaConstants.STATUS_STREAM_TIMEOUT_MS);
+        AtomicLong sentVersion = new AtomicLong(lastVersion);
+        Consumer<OrderStatus> listener = status -> send(emitter, status, sentVersion);
+        watch(aggregateId, listener);
+        //Also called after a timeout or an error
+        emitter.onCompletion(() -> unwatch(aggregateId, listener));
+        //Read after watching, so a status published meanwhile is not missed
+        snapshot(aggregateId).ifPresent(listener);
+        return emitter;
+    }
+
+    /**
+     * Completes with the first status newer than version, or with 304 after
+     * {@link SagaConstants#STATUS_LONG_POLL_TIMEOUT_MS}.
+     */
+    public DeferredResult<ResponseEntity<String>> poll(String aggregateId, long version) {
+        DeferredResult<ResponseEntity<String>> result = new DeferredResult<>(SagaConstants.STATUS_LONG_POLL_TIMEOUT_MS,
+                () -> ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(String.valueOf(version)).build());
+        Consumer<OrderStatus> listener = status -> {
+            if (status.version() > version) {
+                result.setResult(toResponse(status));
+            }
+        };
+        watch(aggregateId, listener);
+        result.onCompletion(() -> unwatch(aggregateId, listener));
+        snapshot(aggregateId).ifPresent(listener);
+        return result;
+    }
+
+    public static ResponseEntity<String> toResponse(OrderStatus status) {
+        return ResponseEntity.ok()
+                .eTag(String.valueOf(status.version()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(status.status());
+    }
+
+    private void watch(String aggregateId, Consumer<OrderStatus> listener) {
+        statusListeners.add(aggregateId, listener);
+        subscriptionRegistry.watch(aggregateId);
+    }
+
+    private void unwatch(String aggregateId, Consumer<OrderStatus> listener) {
+        statusListeners.remove(aggregateId, listener);
+        subscriptionRegistry.unwatch(aggregateId);
+    }
+
+    private static void send(SseEmitter emitter, OrderStatus status, AtomicLong sentVersion) {
+        //The snapshot and a live status may carry the same version
+        if (sentVersion.getAndAccumulate(status.version(), Math::max) >= status.version()) {
+            return;
+        }
+        try {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(status.version()))
+                    .name("status")
+                    .data(status.status(), MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+}
@@ -1,8 +1,7 @@
 package com.example.order.service;
 
-import com.example.common.messaging.model.SagaStatusMessage;
-import com.example.common.utils.Try;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.common.messaging.model.SagaStatusFrame;
+import com.example.order.dto.OrderStatus;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,27 +9,34 @@ import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
-import java.io.IOException;
+import java.util.function.Predicate;
 
 @Component
 @RequiredArgsConstructor
 public class RedisSubscriber {
     private static final Logger logger = LoggerFactory.getLogger(RedisSubscriber.class);
     private final SimpMessagingTemplate messagingTemplate;
-    private final ObjectMapper objectMapper;
+    private final OrderStatusListeners statusListeners;
 
-    public void onMessage(String message, String pattern) {
-        logger.info("Received from Redis: {}",  message);
+    /**
+     * Receives a {@link SagaStatusFrame}, every watched status is routed by its aggregateId and forwarded unparsed.
+     */
+    public void onMessage(String message, Predicate<String> watched) {
+        logger.debug("Received from Redis: {}", message);
         if (!StringUtils.hasText(message)) {
             logger.error("Empty message received");
             return;
         }
-        try {
-            SagaStatusMessage status = objectMapper.readValue(message, SagaStatusMessage.class);
-            messagingTemplate.convertAndSend("/topic/orders/" + status.aggregateId(), message);
-        } catch (Exception e) {
-            logger.error("onMessage failed", e);
-        }
+        SagaStatusFrame.forEach(message, (aggregateId, version, status) -> {
+            if (!watched.test(aggregateId)) {
+                return;
+            }
+            try {
+                messagingTemplate.convertAndSend(StatusSubscriptionRegistry.ORDER_DESTINATION + aggregateId, status);
+            } catch (Exception e) {
+                logger.error("onMessage failed for {}", aggregateId, e);
+            }
+            statusListeners.notify(aggregateId, new OrderStatus(version, status));
+        });
     }
 }
-
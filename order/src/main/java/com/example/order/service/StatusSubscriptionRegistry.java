@@ -0,0 +1,117 @@
+package com.example.order.service;
+
+import com.example.common.statics.RedisChannelNames;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the STOMP subscriptions to {@code /topic/orders/{aggregateId}} and keeps this node subscribed to the
+ * Redis status channels of the watched buckets only ({@link RedisChannelNames#orderStatus(String)}), so a node
+ * receives the statuses of its watchers instead of every saga status. Statuses of the other aggregates of a
+ * watched bucket are skipped ({@link #isWatched(String)}). Other watchers (status streams, long polls) register
+ * through {@link #watch(String)}.
+ */
+@Component
+public class StatusSubscriptionRegistry {
+    public static final String ORDER_DESTINATION = "/topic/orders/";
+    private static final Logger logger = LoggerFactory.getLogger(StatusSubscriptionRegistry.class);
+
+    private final RedisMessageListenerContainer container;
+    private final MessageListener listener;
+    //sessionId -> subscriptionId -> aggregateId
+    private final Map<String, Map<String, String>> sessions = new HashMap<>();
+    //aggregateId -> number of subscriptions, read without the lock
+    private final Map<String, Integer> watchedAggregates = new ConcurrentHashMap<>();
+    private final int[] watchers = new int[RedisChannelNames.ORDER_STATUS_BUCKETS];
+
+    public StatusSubscriptionRegistry(RedisMessageListenerContainer container, RedisSubscriber subscriber) {
+        this.container = container;
+        this.listener = (message, pattern) ->
+                subscriber.onMessage(new String(message.getBody(), StandardCharsets.UTF_8), this::isWatched);
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String destination = accessor.getDestination();
+        if (destination == null || !destination.startsWith(ORDER_DESTINATION)
+                || accessor.getSessionId() == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+        String aggregateId = destination.substring(ORDER_DESTINATION.length());
+        synchronized (this) {
+            watch(aggregateId);
+            //Subscription id reused by the client
+            String previous = sessions.computeIfAbsent(accessor.getSessionId(), s -> new HashMap<>())
+                    .put(accessor.getSubscriptionId(), aggregateId);
+            if (previous != null) {
+                release(previous);
+            }
+        }
+    }
+
+    public boolean isWatched(String aggregateId) {
+        return watchedAggregates.containsKey(aggregateId);
+    }
+
+    public synchronized void watch(String aggregateId) {
+        watchedAggregates.merge(aggregateId, 1, Integer::sum);
+        int bucket = RedisChannelNames.orderStatusBucket(aggregateId);
+        if (watchers[bucket]++ == 0) {
+            container.addMessageListener(listener, new ChannelTopic(RedisChannelNames.orderStatus(bucket)));
+            logger.debug("Subscribed to status bucket {}", bucket);
+        }
+    }
+
+    public synchronized void unwatch(String aggregateId) {
+        release(aggregateId);
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        synchronized (this) {
+            Map<String, String> subscriptions = sessions.get(accessor.getSessionId());
+            String aggregateId = subscriptions != null ? subscriptions.remove(accessor.getSubscriptionId()) : null;
+            if (aggregateId != null) {
+                release(aggregateId);
+            }
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        synchronized (this) {
+            Map<String, String> subscriptions = sessions.remove(event.getSessionId());
+            if (subscriptions != null) {
+                subscriptions.values().forEach(this::release);
+            }
+        }
+    }
+
+    private void release(String aggregateId) {
+        if (!watchedAggregates.containsKey(aggregateId)) {
+            return;
+        }
+        watchedAggregates.computeIfPresent(aggregateId, (id, count) -> count > 1 ? count - 1 : null);
+        int bucket = RedisChannelNames.orderStatusBucket(aggregateId);
+        if (--watchers[bucket] == 0) {
+            container.removeMessageListener(listener, new ChannelTopic(RedisChannelNames.orderStatus(bucket)));
+            logger.debug("Unsubscribed from status bucket {}", bucket);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.order.messaging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class OutboundSessionQueuesTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OutboundSessionQueues queues = new OutboundSessionQueues(1, OutboundSessionQueues.DROP, meterRegistry);
+    private final MessageChannel channel = mock(MessageChannel.class);
+    private final MessageHandler handler = mock(MessageHandler.class);
+
+    @Test
+    void latestStatusOfASlowSessionIsSentOnceItsQueueDrains() {
+        Message<?> running = status("s1", "/topic/orders/1", "RUNNING");
+        Message<?> compensating = status("s1", "/topic/orders/1", "COMPENSATING");
+        Message<?> failed = status("s1", "/topic/orders/1", "FAILED");
+
+        assertThat(queues.preSend(running, channel)).isSameAs(running);
+        assertThat(queues.preSend(compensating, channel)).isNull();
+        assertThat(queues.preSend(failed, channel)).isNull();
+        verifyNoInteractions(channel);
+
+        queues.afterMessageHandled(running, channel, handler, null);
+
+        verify(channel).send(failed);
+        verifyNoMoreInteractions(channel);
+        assertThat(meterRegistry.counter("order.websocket.outbound.dropped").count()).isEqualTo(1);
+    }
+
+    @Test
+    void otherSessionsAreNotHeldBack() {
+        Message<?> first = status("s1", "/topic/orders/1", "RUNNING");
+        Message<?> other = status("s2", "/topic/orders/1", "RUNNING");
+
+        assertThat(queues.preSend(first, channel)).isSameAs(first);
+        assertThat(queues.preSend(other, channel)).isSameAs(other);
+    }
+
+    @Test
+    void rejectedMessageFreesItsSlot() {
+        Message<?> rejected = status("s1", "/topic/orders/1", "RUNNING");
+        Message<?> next = status("s1", "/topic/orders/1", "COMPLETED");
+
+        queues.preSend(rejected, channel);
+        queues.afterSendCompletion(rejected, channel, false, new IllegalStateException("queue full"));
+
+        assertThat(queues.preSend(next, channel)).isSameAs(next);
+    }
+
+    private static Message<String> status(String sessionId, String destination, String status) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(status, accessor.getMessageHeaders());
+    }
+}
@@ -14,7 +14,7 @@ public class PaymentEventPublisher implements EventPublisher {
 
     @Override
     public void publish(String topic, BaseEvent event) {
-        kafkaTemplate.send(topic, event);
+        kafkaTemplate.send(topic, event.getAggregateId(), event);
     }
 
     public void publishEvent(BaseEvent event) {